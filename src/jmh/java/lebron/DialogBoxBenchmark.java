@@ -0,0 +1,110 @@
+package lebron;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.shape.Circle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures creating a dialog box for a reply: built in code, as {@link DialogBox} does now, against loading it from
+ * {@code DialogBox.fxml}, as it used to. The boxes are never shown, so neither measure includes CSS or layout.
+ * JavaFX has to start up for the benchmark, so it needs a display to run on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DialogBoxBenchmark {
+    private static final String REPLY =
+            "Got it. I've added this task:\n  [T][ ] read book\nNow you have 3 tasks in the list.";
+
+    private Image image;
+    private URL fxml;
+
+    /**
+     * The controller the FXML fills in, standing in for the fields the old dialog box had.
+     */
+    public static class Template {
+        @FXML
+        private Label dialog;
+        @FXML
+        private ImageView displayPicture;
+    }
+
+    /**
+     * Starts JavaFX and loads the avatar.
+     */
+    @Setup
+    public void setUp() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException e) {
+            // Already started by an earlier trial in this JVM
+        }
+        image = new Image(DialogBoxBenchmark.class.getResourceAsStream("/images/DaLebron.png"));
+        fxml = DialogBoxBenchmark.class.getResource("/view/DialogBox.fxml");
+    }
+
+    /**
+     * Creates a dialog box in code.
+     *
+     * @return the dialog box.
+     */
+    @Benchmark
+    public HBox programmatic() {
+        return DialogBox.getLebronDialog(REPLY, image);
+    }
+
+    /**
+     * Creates a dialog box by loading the FXML, and then styling it the same way {@link DialogBox} does.
+     *
+     * @return the dialog box.
+     * @throws IOException if the FXML cannot be loaded.
+     */
+    @Benchmark
+    public HBox fromFxml() throws IOException {
+        HBox box = new HBox();
+        Template template = new Template();
+        FXMLLoader loader = new FXMLLoader(fxml);
+        loader.setController(template);
+        loader.setRoot(box);
+        loader.load();
+
+        template.dialog.setText(REPLY);
+        template.displayPicture.setImage(image);
+        box.getStyleClass().add("dialog-row");
+        template.dialog.getStyleClass().add("dialog-text");
+        HBox.setHgrow(template.dialog, Priority.ALWAYS);
+        HBox.setMargin(template.dialog, new Insets(6, 0, 6, 0));
+        Circle clip = new Circle();
+        clip.radiusProperty().bind(template.displayPicture.fitWidthProperty().divide(2));
+        clip.centerXProperty().bind(template.displayPicture.fitWidthProperty().divide(2));
+        clip.centerYProperty().bind(template.displayPicture.fitHeightProperty().divide(2));
+        template.displayPicture.setClip(clip);
+        box.getChildren().setAll(box.getChildren().get(1), box.getChildren().get(0));
+        box.getStyleClass().add("lebron");
+        return box;
+    }
+}
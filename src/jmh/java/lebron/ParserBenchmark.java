@@ -0,0 +1,65 @@
+package lebron;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing a typical command of every type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"HI", "LIST", "MARK", "UNMARK", "DELETE", "TODO", "DEADLINE", "EVENT", "BYE", "CHECK", "FIND", "UNDO",
+            "STATS"})
+    private Parser.CommandType type;
+
+    private String input;
+
+    /**
+     * Picks the command to parse.
+     */
+    @Setup
+    public void setUp() {
+        input = switch (type) {
+        case HI -> "hi";
+        case LIST -> "list";
+        case MARK -> "mark 12";
+        case UNMARK -> "unmark 12";
+        case DELETE -> "delete 12";
+        case TODO -> "todo read book";
+        case DEADLINE -> "deadline return book /by 2025-10-01 1800";
+        case EVENT -> "event project meeting /from 2025-10-01 1400 /to 2025-10-01 1600";
+        case BYE -> "bye";
+        case CHECK -> "check 2025-10-01";
+        case FIND -> "find book";
+        case UNDO -> "undo";
+        case STATS -> "stats";
+        };
+    }
+
+    /**
+     * Parses the command.
+     *
+     * @return the parsed command.
+     * @throws LebronException never, as every command is well formed.
+     */
+    @Benchmark
+    public Parser.ParsedCommand parse() throws LebronException {
+        return Parser.parse(input);
+    }
+}
@@ -0,0 +1,107 @@
+package lebron;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic task lists and save files for the benchmarks.
+ * The mix is roughly half todos, a third deadlines and the rest events, a quarter of them done and half of the
+ * dated ones with times, with descriptions of two to four words drawn from a small vocabulary so that searches
+ * have realistic hit rates.
+ */
+public class SaveFileGenerator {
+    /** The first day tasks are scheduled on. */
+    public static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    /** The number of days tasks are spread over. */
+    public static final int DAYS = 365;
+
+    private static final String[] WORDS = {
+        "read", "book", "return", "library", "buy", "milk", "call", "mum", "submit", "report", "project", "meeting",
+        "team", "lunch", "gym", "run", "pay", "rent", "bills", "clean", "room", "laundry", "email", "boss", "plan",
+        "trip", "camp", "flight", "hotel", "exam", "revise", "lecture", "notes", "tutorial", "quiz", "assignment",
+        "doctor", "dentist", "haircut", "birthday", "party", "gift", "cook", "dinner", "groceries", "water", "plants",
+        "fix", "bike", "car",
+    };
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private SaveFileGenerator() {
+    }
+
+    /**
+     * Generates a list of tasks.
+     *
+     * @param count the number of tasks.
+     * @param seed the seed for the random mix, so that runs are repeatable.
+     * @return the tasks.
+     */
+    public static List<Task> tasks(int count, long seed) {
+        Random random = new Random(seed);
+        List<Task> tasks = new ArrayList<>(count);
+        long firstDay = FIRST_DAY.toEpochDay();
+        for (int i = 0; i < count; i++) {
+            String desc = description(random);
+            long day = firstDay + random.nextInt(DAYS);
+            boolean hasTime = random.nextBoolean();
+            int kind = random.nextInt(6);
+
+            Task t;
+            if (kind < 3) {
+                t = new Todo(desc);
+            } else if (kind < 5) {
+                t = new Deadline(desc, hasTime ? day * MINUTES_PER_DAY + random.nextInt(MINUTES_PER_DAY) : day,
+                        hasTime);
+            } else {
+                long endDay = day + random.nextInt(7);
+                t = hasTime
+                        ? new Event(desc, day * MINUTES_PER_DAY + 9 * 60, endDay * MINUTES_PER_DAY + 17 * 60, true)
+                        : new Event(desc, day, endDay, false);
+            }
+            if (random.nextInt(4) == 0) {
+                t.markDone();
+            }
+            tasks.add(t);
+        }
+        return tasks;
+    }
+
+    /**
+     * Writes a save file of generated tasks.
+     *
+     * @param file the save file to write.
+     * @param count the number of tasks.
+     * @param format the format of the save file.
+     * @throws LebronException if the file cannot be written.
+     */
+    public static void write(Path file, int count, Storage.Format format) throws LebronException {
+        Storage storage = new Storage(file.toString(), false, 1000, SyncPolicy.NEVER, format);
+        storage.saveTasks(tasks(count, count));
+    }
+
+    /**
+     * Writes a save file of generated tasks from the command line.
+     * Usage: {@code SaveFileGenerator <file> <count> [text|binary]}.
+     *
+     * @param args the file, the number of tasks and optionally the format.
+     * @throws LebronException if the file cannot be written.
+     */
+    public static void main(String[] args) throws LebronException {
+        if (args.length < 2) {
+            System.err.println("Usage: SaveFileGenerator <file> <count> [text|binary]");
+            System.exit(1);
+        }
+        Storage.Format format = args.length > 2 ? Storage.Format.valueOf(args[2].toUpperCase()) : Storage.Format.TEXT;
+        write(Path.of(args[0]), Integer.parseInt(args[1]), format);
+    }
+
+    private static String description(Random random) {
+        StringBuilder sb = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        int words = 2 + random.nextInt(3);
+        for (int i = 1; i < words; i++) {
+            sb.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
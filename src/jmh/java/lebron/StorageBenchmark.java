@@ -0,0 +1,99 @@
+package lebron;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading and saving generated save files of every format and size, with every load mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"TEXT", "BINARY"})
+    private Storage.Format format;
+
+    @Param({"EAGER", "MAPPED", "PARALLEL"})
+    private Storage.LoadMode loadMode;
+
+    private Path dir;
+    private Storage loadStorage;
+    private Storage saveStorage;
+    private List<Task> tasks;
+
+    /**
+     * Writes the save file to load, and generates the tasks to save.
+     *
+     * @throws IOException if the temporary directory cannot be created.
+     * @throws LebronException if the save file cannot be written.
+     */
+    @Setup
+    public void setUp() throws IOException, LebronException {
+        dir = Files.createTempDirectory("lebron-bench");
+        Path loadFile = dir.resolve("load.txt");
+        SaveFileGenerator.write(loadFile, size, format);
+        loadStorage = new Storage(loadFile.toString(), false, 1000, SyncPolicy.NEVER, format);
+        loadStorage.setLoadMode(loadMode);
+        saveStorage = new Storage(dir.resolve("save.txt").toString(), false, 1000, SyncPolicy.NEVER, format);
+        tasks = SaveFileGenerator.tasks(size, size);
+    }
+
+    /**
+     * Deletes the generated files.
+     *
+     * @throws IOException if a file cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /**
+     * Loads the save file.
+     *
+     * @return the loaded tasks.
+     * @throws LebronException if the save file cannot be read.
+     */
+    @Benchmark
+    public List<Task> load() throws LebronException {
+        return loadStorage.loadTasks();
+    }
+
+    /**
+     * Saves the tasks, replacing the previous save file.
+     *
+     * @throws LebronException if the save file cannot be written.
+     */
+    @Benchmark
+    public void save() throws LebronException {
+        saveStorage.saveTasks(tasks);
+    }
+}
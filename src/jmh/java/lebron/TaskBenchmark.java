@@ -0,0 +1,68 @@
+package lebron;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures creating deadlines and events from the dates users type, with and without times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskBenchmark {
+    /**
+     * Creates a deadline on a date.
+     *
+     * @return the deadline.
+     * @throws LebronException never, as the date is well formed.
+     */
+    @Benchmark
+    public Deadline deadlineDate() throws LebronException {
+        return new Deadline("return book", "2025-10-01");
+    }
+
+    /**
+     * Creates a deadline at a time.
+     *
+     * @return the deadline.
+     * @throws LebronException never, as the date is well formed.
+     */
+    @Benchmark
+    public Deadline deadlineDateTime() throws LebronException {
+        return new Deadline("return book", "2025-10-01 1800");
+    }
+
+    /**
+     * Creates an event over days.
+     *
+     * @return the event.
+     * @throws LebronException never, as the dates are well formed.
+     */
+    @Benchmark
+    public Event eventDate() throws LebronException {
+        return new Event("camp", "2025-10-01", "2025-10-03");
+    }
+
+    /**
+     * Creates an event between times.
+     *
+     * @return the event.
+     * @throws LebronException never, as the dates are well formed.
+     */
+    @Benchmark
+    public Event eventDateTime() throws LebronException {
+        return new Event("project meeting", "2025-10-01 1400", "2025-10-01 1600");
+    }
+}
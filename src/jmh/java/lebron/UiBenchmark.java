@@ -0,0 +1,93 @@
+package lebron;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the replies to find, check and list over generated task lists.
+ * The indexes behind find and check are built during warm-up, so these measure the steady state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UiBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private final Ui ui = new Ui();
+    private TaskList taskList;
+
+    /**
+     * Generates the task list.
+     */
+    @Setup
+    public void setUp() {
+        taskList = new TaskList(SaveFileGenerator.tasks(size, size));
+    }
+
+    /**
+     * Finds the tasks containing a common keyword.
+     *
+     * @return the reply.
+     */
+    @Benchmark
+    public String find() {
+        return ui.handleFind(taskList, "book");
+    }
+
+    /**
+     * Finds the tasks containing two keywords.
+     *
+     * @return the reply.
+     */
+    @Benchmark
+    public String findAll() {
+        return ui.handleFind(taskList, "return /and library");
+    }
+
+    /**
+     * Checks a single day.
+     *
+     * @return the reply.
+     * @throws LebronException never, as the date is well formed.
+     */
+    @Benchmark
+    public String check() throws LebronException {
+        return ui.handleCheck(taskList, "2025-6-15", null);
+    }
+
+    /**
+     * Checks a week.
+     *
+     * @return the reply.
+     * @throws LebronException never, as the dates are well formed.
+     */
+    @Benchmark
+    public String checkRange() throws LebronException {
+        return ui.handleCheck(taskList, "2025-6-15", "2025-6-21");
+    }
+
+    /**
+     * Lists every task.
+     *
+     * @return the reply.
+     */
+    @Benchmark
+    public String list() {
+        return ui.handleList(taskList);
+    }
+}
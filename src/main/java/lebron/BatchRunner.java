@@ -0,0 +1,59 @@
+package lebron;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a file of commands, or the commands on standard input, as a single batch, without starting the GUI.
+ * Blank lines are skipped. The reply to each command is printed on standard output, and the changes are saved
+ * once, after the last command. Usage: {@code BatchRunner [commands file] [save file]}, where a commands file of
+ * {@code -} also means standard input.
+ */
+public class BatchRunner {
+    private BatchRunner() {
+    }
+
+    /**
+     * Runs the batch.
+     *
+     * @param args the file of commands, or nothing or {@code -} to read them from standard input, then the save file
+     *     to use, or nothing for the default one.
+     */
+    public static void main(String[] args) {
+        List<String> commands = new ArrayList<>();
+        try (BufferedReader in = args.length > 0 && !args[0].equals("-")
+                ? Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.isBlank()) {
+                    commands.add(line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error - Unable to read commands: " + e.getMessage());
+            System.exit(1);
+        }
+
+        PrintWriter out = new PrintWriter(System.out, false, StandardCharsets.UTF_8);
+        try {
+            Lebron lebron = new Lebron(args.length > 1 ? args[1] : Lebron.DEFAULT_SAVE_PATH);
+            for (String reply : lebron.runBatch(commands)) {
+                out.println(reply);
+            }
+            lebron.close();
+        } catch (LebronException e) {
+            out.flush();
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+        out.flush();
+    }
+}
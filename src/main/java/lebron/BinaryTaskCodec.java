@@ -0,0 +1,151 @@
+package lebron;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Reads and writes the compact binary save file format.
+ * The file starts with a magic number, a version and the journal generation, followed by one record per task:
+ * a type byte, a flags byte (done, has time), the length-prefixed UTF-8 description and, for deadlines and events,
+ * their dates packed as epoch days or epoch minutes.
+ */
+public class BinaryTaskCodec {
+    private static final byte[] MAGIC = {'L', 'B', 'R', 'N'};
+    private static final byte VERSION = 1;
+    private static final int DONE = 1;
+    private static final int HAS_TIME = 2;
+
+    private BinaryTaskCodec() {
+    }
+
+    /**
+     * Returns whether the given file is in the binary format.
+     *
+     * @param p the save file.
+     * @return true if the file starts with the binary magic number.
+     * @throws IOException if the file cannot be read.
+     */
+    public static boolean isBinary(Path p) throws IOException {
+        if (!Files.exists(p) || Files.size(p) < MAGIC.length) {
+            return false;
+        }
+        try (InputStream in = Files.newInputStream(p)) {
+            byte[] head = in.readNBytes(MAGIC.length);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (head[i] != MAGIC[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Writes the tasks in the binary format.
+     *
+     * @param out the stream to write to.
+     * @param tasks the tasks.
+     * @param generation the journal generation the tasks fold in, or -1 if none.
+     * @throws IOException if the write fails.
+     */
+    public static void write(DataOutputStream out, List<Task> tasks, long generation) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(generation);
+        out.writeInt(tasks.size());
+        for (Task t : tasks) {
+            byte[] desc = t.getDescription().getBytes(StandardCharsets.UTF_8);
+            int flags = t.getIsDone() ? DONE : 0;
+            if (t instanceof Deadline) {
+                Deadline d = (Deadline) t;
+                out.writeByte('D');
+                out.writeByte(flags | (d.getHasTime() ? HAS_TIME : 0));
+                writeDescription(out, desc);
+                out.writeLong(d.getPackedBy());
+            } else if (t instanceof Event) {
+                Event e = (Event) t;
+                out.writeByte('E');
+                out.writeByte(flags | (e.getHasTime() ? HAS_TIME : 0));
+                writeDescription(out, desc);
+                out.writeLong(e.getPackedFrom());
+                out.writeLong(e.getPackedTo());
+            } else {
+                out.writeByte('T');
+                out.writeByte(flags);
+                writeDescription(out, desc);
+            }
+        }
+    }
+
+    /**
+     * Reads tasks in the binary format into the given list.
+     *
+     * @param in the stream to read from.
+     * @param tasks the list to add the tasks to.
+     * @return the journal generation the tasks fold in, or -1 if none.
+     * @throws IOException if the read fails.
+     * @throws LebronException if the data is not a valid binary save file.
+     */
+    public static long read(DataInputStream in, List<Task> tasks) throws IOException, LebronException {
+        byte[] head = in.readNBytes(MAGIC.length);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (i >= head.length || head[i] != MAGIC[i]) {
+                throw new LebronException("Error - Not a binary save file.");
+            }
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new LebronException("Error - Unsupported save file version: " + version);
+        }
+
+        try {
+            long generation = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                tasks.add(readTask(in));
+            }
+            return generation;
+        } catch (EOFException e) {
+            throw new LebronException("Error - Save file ends part-way through a task.");
+        }
+    }
+
+    private static Task readTask(DataInputStream in) throws IOException, LebronException {
+        int type = in.readUnsignedByte();
+        int flags = in.readUnsignedByte();
+        int length = in.readInt();
+        if (length < 0) {
+            throw new LebronException("Error - Corrupt description length in save file: " + length);
+        }
+        // Reads what is actually there rather than allocating whatever length a corrupt file claims up front
+        byte[] desc = in.readNBytes(length);
+        if (desc.length < length) {
+            throw new LebronException("Error - Save file ends part-way through a task.");
+        }
+        String description = DescriptionPool.SHARED.intern(new String(desc, StandardCharsets.UTF_8));
+        boolean hasTime = (flags & HAS_TIME) != 0;
+
+        Task t = switch (type) {
+        case 'T' -> new Todo(description);
+        case 'D' -> new Deadline(description, in.readLong(), hasTime);
+        case 'E' -> new Event(description, in.readLong(), in.readLong(), hasTime);
+        default -> throw new LebronException("Unknown task type: " + (char) type);
+        };
+        if ((flags & DONE) != 0) {
+            t.markDone();
+        }
+        return t;
+    }
+
+    private static void writeDescription(DataOutputStream out, byte[] desc) throws IOException {
+        out.writeInt(desc.length);
+        out.write(desc);
+    }
+}
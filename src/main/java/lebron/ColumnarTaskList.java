@@ -0,0 +1,549 @@
+package lebron;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * List of tasks stored column by column instead of as task objects: a byte per task for its type and flags, two
+ * columns of packed dates, and the offset and length of its description in an arena of UTF-8 bytes held off the
+ * heap. A task read from the list is a throwaway view, decoded afresh on every read and never kept, so changing one
+ * only changes the list once it is {@link #set} back.
+ * Listing and searching the list format and match tasks straight from the columns and the arena, and only decode
+ * the tasks a search returns.
+ * The arena is only ever appended to. It is replaced by a compacted copy once most of it is taken up by deleted or
+ * replaced descriptions, which leaves copies of the list still reading the old one undisturbed.
+ * The columns are split into chunks of a fixed number of tasks. A copy shares every chunk, and the list copies a
+ * chunk only when it next changes a task in it, so an edit after a copy costs a chunk rather than the whole list.
+ */
+public class ColumnarTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    private static final byte TYPE_MASK = 3;
+    private static final byte DONE = 4;
+    private static final byte HAS_TIME = 8;
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MIN_ARENA = 1 << 12;
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Each column is an array of chunks. Only the first chunk may be shorter than CHUNK_SIZE, while it is the only one.
+    private byte[][] kinds;
+    // The deadline's due date or the event's start, and the event's end; epoch days, or epoch minutes with a time
+    private long[][] firsts;
+    private long[][] seconds;
+    private int[][] descStarts;
+    private int[][] descLengths;
+    private int size;
+
+    private ByteBuffer arena;
+    private int arenaUsed;
+    private long arenaGarbage;
+    // Set for each chunk a copy shares, so that the next change to that chunk copies it first
+    private boolean[] isShared;
+    private final boolean isReadOnly;
+
+    /**
+     * Creates an empty list.
+     */
+    public ColumnarTaskList() {
+        this(List.of());
+    }
+
+    /**
+     * Creates a list holding the given tasks, in the same order.
+     *
+     * @param tasks the tasks.
+     */
+    public ColumnarTaskList(List<Task> tasks) {
+        int chunks = Math.max(1, (tasks.size() + CHUNK_MASK) >>> CHUNK_SHIFT);
+        kinds = new byte[chunks][];
+        firsts = new long[chunks][];
+        seconds = new long[chunks][];
+        descStarts = new int[chunks][];
+        descLengths = new int[chunks][];
+        isShared = new boolean[chunks];
+        int firstCapacity = chunks == 1 ? Math.min(CHUNK_SIZE, Math.max(MIN_CAPACITY, tasks.size())) : CHUNK_SIZE;
+        for (int c = 0; c < chunks; c++) {
+            allocateChunk(c, c == 0 ? firstCapacity : CHUNK_SIZE);
+        }
+        arena = ByteBuffer.allocateDirect(MIN_ARENA);
+        isReadOnly = false;
+        for (Task t : tasks) {
+            add(t);
+        }
+    }
+
+    private ColumnarTaskList(ColumnarTaskList other) {
+        // Only the arrays of chunks are copied; the chunks themselves are shared
+        this.kinds = other.kinds.clone();
+        this.firsts = other.firsts.clone();
+        this.seconds = other.seconds.clone();
+        this.descStarts = other.descStarts.clone();
+        this.descLengths = other.descLengths.clone();
+        this.size = other.size;
+        this.arena = other.arena;
+        this.arenaUsed = other.arenaUsed;
+        this.arenaGarbage = other.arenaGarbage;
+        this.isShared = new boolean[kinds.length];
+        Arrays.fill(isShared, true);
+        this.isReadOnly = true;
+    }
+
+    @Override
+    public Task get(int idx) {
+        checkIndex(idx);
+        byte kind = kindAt(idx);
+        boolean hasTime = (kind & HAS_TIME) != 0;
+        String description = descriptionAt(idx);
+        Task t = switch (kind & TYPE_MASK) {
+        case DEADLINE -> new Deadline(description, firstAt(idx), hasTime);
+        case EVENT -> new Event(description, firstAt(idx), secondAt(idx), hasTime);
+        default -> new Todo(description);
+        };
+        if ((kind & DONE) != 0) {
+            t.markDone();
+        }
+        return t;
+    }
+
+    @Override
+    public Task set(int idx, Task t) {
+        checkWritable();
+        Task old = get(idx);
+        unshare(idx >>> CHUNK_SHIFT);
+        byte[] desc = t.getDescription().getBytes(StandardCharsets.UTF_8);
+        // Marking a task writes back the same description, which can stay where it is
+        if (!isDescriptionAt(idx, desc)) {
+            arenaGarbage += descLengthAt(idx);
+            store(idx, t, desc);
+            compactIfWasteful();
+        } else {
+            storeColumns(idx, t);
+        }
+        return old;
+    }
+
+    @Override
+    public void add(int idx, Task t) {
+        checkWritable();
+        if (idx < 0 || idx > size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+        if (size == capacity()) {
+            grow();
+        }
+        openGap(idx);
+        size++;
+        store(idx, t, t.getDescription().getBytes(StandardCharsets.UTF_8));
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int idx) {
+        checkWritable();
+        Task old = get(idx);
+        arenaGarbage += descLengthAt(idx);
+        closeGap(idx);
+        size--;
+        modCount++;
+        compactIfWasteful();
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the type letter of the task at the given index without decoding it.
+     *
+     * @param idx the 0-based index of the task.
+     * @return 'T', 'D' or 'E'.
+     */
+    public char typeAt(int idx) {
+        checkIndex(idx);
+        int type = kindAt(idx) & TYPE_MASK;
+        return type == DEADLINE ? 'D' : type == EVENT ? 'E' : 'T';
+    }
+
+    /**
+     * Returns the deadlines due and the events taking place on any day of the given range, in list order.
+     * Only the type and date columns are scanned; descriptions are only decoded for the tasks that match.
+     *
+     * @param fromDay the first day of the range, as an epoch day.
+     * @param toDay the last day of the range, as an epoch day.
+     * @return the tasks in the range.
+     */
+    public List<Task> between(long fromDay, long toDay) {
+        List<Task> matches = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            byte kind = kindAt(i);
+            int type = kind & TYPE_MASK;
+            if (type == TODO) {
+                continue;
+            }
+            boolean hasTime = (kind & HAS_TIME) != 0;
+            long first = hasTime ? Math.floorDiv(firstAt(i), MINUTES_PER_DAY) : firstAt(i);
+            long last = type == EVENT ? (hasTime ? Math.floorDiv(secondAt(i), MINUTES_PER_DAY) : secondAt(i)) : first;
+            if (first <= toDay && last >= fromDay) {
+                matches.add(get(i));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Appends the display string of the task at the given index, as its {@code toString} would give it, straight
+     * from the columns and the arena.
+     *
+     * @param idx the 0-based index of the task.
+     * @param sb the builder to append to.
+     */
+    public void appendDisplay(int idx, StringBuilder sb) {
+        checkIndex(idx);
+        byte kind = kindAt(idx);
+        int type = kind & TYPE_MASK;
+        boolean hasTime = (kind & HAS_TIME) != 0;
+        sb.append(type == DEADLINE ? "[D][" : type == EVENT ? "[E][" : "[T][")
+                .append((kind & DONE) != 0 ? 'X' : ' ').append("] ");
+        appendDescription(idx, sb);
+        if (type == DEADLINE) {
+            sb.append(" (by: ");
+            DateCodec.appendDisplay(sb, firstAt(idx), hasTime);
+            sb.append(')');
+        } else if (type == EVENT) {
+            sb.append(" (from: ");
+            DateCodec.appendDisplay(sb, firstAt(idx), hasTime);
+            sb.append(" to: ");
+            DateCodec.appendDisplay(sb, secondAt(idx), hasTime);
+            sb.append(')');
+        }
+    }
+
+    /**
+     * Returns the tasks whose descriptions contain every one of the keywords, ignoring case, in list order.
+     * ASCII keywords are matched against the bytes in the arena, so only the tasks that match are decoded.
+     * Descriptions with other characters are decoded and lower-cased as usual, as some of them lower-case to
+     * ASCII letters.
+     *
+     * @param lowered the lower-cased keywords.
+     * @return the matching tasks.
+     */
+    public List<Task> find(List<String> lowered) {
+        byte[][] keys = new byte[lowered.size()][];
+        boolean isAscii = true;
+        for (int k = 0; k < keys.length; k++) {
+            keys[k] = lowered.get(k).getBytes(StandardCharsets.UTF_8);
+            isAscii &= keys[k].length == lowered.get(k).length();
+        }
+
+        List<Task> matches = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            boolean isMatch;
+            if (isAscii && isAsciiAt(i)) {
+                isMatch = true;
+                for (int k = 0; k < keys.length && isMatch; k++) {
+                    isMatch = containsIgnoringCase(i, keys[k]);
+                }
+            } else {
+                String desc = descriptionAt(i).toLowerCase();
+                isMatch = lowered.stream().allMatch(desc::contains);
+            }
+            if (isMatch) {
+                matches.add(get(i));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns a read-only copy of this list that shares its arena, and each chunk of its columns until this list
+     * next changes a task in that chunk.
+     *
+     * @return the copy, whose methods that would change it throw {@link UnsupportedOperationException}.
+     */
+    public ColumnarTaskList copy() {
+        Arrays.fill(isShared, true);
+        return new ColumnarTaskList(this);
+    }
+
+    private void store(int idx, Task t, byte[] desc) {
+        long needed = (long) arenaUsed + desc.length;
+        if (needed > arena.capacity()) {
+            if (needed > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Error - Too many descriptions to hold in the task list.");
+            }
+            long capacity = Math.min(Integer.MAX_VALUE, Math.max(2L * arena.capacity(), needed));
+            ByteBuffer bigger = ByteBuffer.allocateDirect((int) capacity);
+            copyArena(arena, 0, bigger, 0, arenaUsed);
+            arena = bigger;
+        }
+        arena.put(arenaUsed, desc);
+        descStarts[idx >>> CHUNK_SHIFT][idx & CHUNK_MASK] = arenaUsed;
+        descLengths[idx >>> CHUNK_SHIFT][idx & CHUNK_MASK] = desc.length;
+        arenaUsed += desc.length;
+        storeColumns(idx, t);
+    }
+
+    private void storeColumns(int idx, Task t) {
+        byte kind = TODO;
+        long first = 0;
+        long second = 0;
+        if (t instanceof Deadline) {
+            Deadline d = (Deadline) t;
+            kind = d.getHasTime() ? DEADLINE | HAS_TIME : DEADLINE;
+            first = d.getPackedBy();
+        } else if (t instanceof Event) {
+            Event e = (Event) t;
+            kind = e.getHasTime() ? EVENT | HAS_TIME : EVENT;
+            first = e.getPackedFrom();
+            second = e.getPackedTo();
+        }
+        int c = idx >>> CHUNK_SHIFT;
+        int i = idx & CHUNK_MASK;
+        kinds[c][i] = t.getIsDone() ? (byte) (kind | DONE) : kind;
+        firsts[c][i] = first;
+        seconds[c][i] = second;
+    }
+
+    private byte kindAt(int idx) {
+        return kinds[idx >>> CHUNK_SHIFT][idx & CHUNK_MASK];
+    }
+
+    private long firstAt(int idx) {
+        return firsts[idx >>> CHUNK_SHIFT][idx & CHUNK_MASK];
+    }
+
+    private long secondAt(int idx) {
+        return seconds[idx >>> CHUNK_SHIFT][idx & CHUNK_MASK];
+    }
+
+    private int descStartAt(int idx) {
+        return descStarts[idx >>> CHUNK_SHIFT][idx & CHUNK_MASK];
+    }
+
+    private int descLengthAt(int idx) {
+        return descLengths[idx >>> CHUNK_SHIFT][idx & CHUNK_MASK];
+    }
+
+    private String descriptionAt(int idx) {
+        byte[] desc = new byte[descLengthAt(idx)];
+        arena.get(descStartAt(idx), desc);
+        return new String(desc, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends the description of a task, copying ASCII straight out of the arena and decoding anything else.
+     */
+    private void appendDescription(int idx, StringBuilder sb) {
+        int mark = sb.length();
+        int start = descStartAt(idx);
+        int end = start + descLengthAt(idx);
+        for (int i = start; i < end; i++) {
+            byte b = arena.get(i);
+            if (b < 0) {
+                sb.setLength(mark);
+                sb.append(descriptionAt(idx));
+                return;
+            }
+            sb.append((char) b);
+        }
+    }
+
+    private boolean isAsciiAt(int idx) {
+        int start = descStartAt(idx);
+        int end = start + descLengthAt(idx);
+        for (int i = start; i < end; i++) {
+            if (arena.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether an ASCII description contains a lower-cased ASCII keyword, ignoring the case of the
+     * description.
+     */
+    private boolean containsIgnoringCase(int idx, byte[] key) {
+        int start = descStartAt(idx);
+        int last = start + descLengthAt(idx) - key.length;
+        for (int from = start; from <= last; from++) {
+            int j = 0;
+            while (j < key.length && toLowerAscii(arena.get(from + j)) == key[j]) {
+                j++;
+            }
+            if (j == key.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte toLowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private boolean isDescriptionAt(int idx, byte[] desc) {
+        if (descLengthAt(idx) != desc.length) {
+            return false;
+        }
+        int start = descStartAt(idx);
+        for (int i = 0; i < desc.length; i++) {
+            if (arena.get(start + i) != desc[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives this list its own copy of a chunk of the columns before changing it, if a copy still shares it.
+     */
+    private void unshare(int chunk) {
+        if (!isShared[chunk]) {
+            return;
+        }
+        kinds[chunk] = kinds[chunk].clone();
+        firsts[chunk] = firsts[chunk].clone();
+        seconds[chunk] = seconds[chunk].clone();
+        descStarts[chunk] = descStarts[chunk].clone();
+        descLengths[chunk] = descLengths[chunk].clone();
+        isShared[chunk] = false;
+    }
+
+    /**
+     * Moves the tasks from the given index on up by one, chunk by chunk from the last, carrying the last task of
+     * each chunk over into the first slot of the next. There must be room for one more task.
+     */
+    private void openGap(int idx) {
+        int firstChunk = idx >>> CHUNK_SHIFT;
+        for (int c = size >>> CHUNK_SHIFT; c >= firstChunk; c--) {
+            unshare(c);
+            int lo = c == firstChunk ? idx & CHUNK_MASK : 0;
+            int top = c == size >>> CHUNK_SHIFT ? size & CHUNK_MASK : CHUNK_SIZE - 1;
+            System.arraycopy(kinds[c], lo, kinds[c], lo + 1, top - lo);
+            System.arraycopy(firsts[c], lo, firsts[c], lo + 1, top - lo);
+            System.arraycopy(seconds[c], lo, seconds[c], lo + 1, top - lo);
+            System.arraycopy(descStarts[c], lo, descStarts[c], lo + 1, top - lo);
+            System.arraycopy(descLengths[c], lo, descLengths[c], lo + 1, top - lo);
+            if (c > firstChunk) {
+                kinds[c][0] = kinds[c - 1][CHUNK_MASK];
+                firsts[c][0] = firsts[c - 1][CHUNK_MASK];
+                seconds[c][0] = seconds[c - 1][CHUNK_MASK];
+                descStarts[c][0] = descStarts[c - 1][CHUNK_MASK];
+                descLengths[c][0] = descLengths[c - 1][CHUNK_MASK];
+            }
+        }
+    }
+
+    /**
+     * Moves the tasks after the given index down by one, chunk by chunk from the first, carrying the first task of
+     * each chunk back into the last slot of the one before.
+     */
+    private void closeGap(int idx) {
+        int firstChunk = idx >>> CHUNK_SHIFT;
+        int lastChunk = (size - 1) >>> CHUNK_SHIFT;
+        for (int c = firstChunk; c <= lastChunk; c++) {
+            unshare(c);
+            int lo = c == firstChunk ? idx & CHUNK_MASK : 0;
+            int top = c == lastChunk ? (size - 1) & CHUNK_MASK : CHUNK_MASK;
+            System.arraycopy(kinds[c], lo + 1, kinds[c], lo, top - lo);
+            System.arraycopy(firsts[c], lo + 1, firsts[c], lo, top - lo);
+            System.arraycopy(seconds[c], lo + 1, seconds[c], lo, top - lo);
+            System.arraycopy(descStarts[c], lo + 1, descStarts[c], lo, top - lo);
+            System.arraycopy(descLengths[c], lo + 1, descLengths[c], lo, top - lo);
+            if (c < lastChunk) {
+                kinds[c][CHUNK_MASK] = kinds[c + 1][0];
+                firsts[c][CHUNK_MASK] = firsts[c + 1][0];
+                seconds[c][CHUNK_MASK] = seconds[c + 1][0];
+                descStarts[c][CHUNK_MASK] = descStarts[c + 1][0];
+                descLengths[c][CHUNK_MASK] = descLengths[c + 1][0];
+            }
+        }
+    }
+
+    private int capacity() {
+        return kinds.length == 1 ? kinds[0].length : kinds.length << CHUNK_SHIFT;
+    }
+
+    /**
+     * Makes room for more tasks: the first chunk grows until it is full size, and after that a chunk is added.
+     */
+    private void grow() {
+        if (kinds.length == 1 && kinds[0].length < CHUNK_SIZE) {
+            int capacity = Math.min(CHUNK_SIZE, kinds[0].length + (kinds[0].length >> 1) + 1);
+            kinds[0] = Arrays.copyOf(kinds[0], capacity);
+            firsts[0] = Arrays.copyOf(firsts[0], capacity);
+            seconds[0] = Arrays.copyOf(seconds[0], capacity);
+            descStarts[0] = Arrays.copyOf(descStarts[0], capacity);
+            descLengths[0] = Arrays.copyOf(descLengths[0], capacity);
+            isShared[0] = false;
+            return;
+        }
+        int chunks = kinds.length + 1;
+        kinds = Arrays.copyOf(kinds, chunks);
+        firsts = Arrays.copyOf(firsts, chunks);
+        seconds = Arrays.copyOf(seconds, chunks);
+        descStarts = Arrays.copyOf(descStarts, chunks);
+        descLengths = Arrays.copyOf(descLengths, chunks);
+        isShared = Arrays.copyOf(isShared, chunks);
+        allocateChunk(chunks - 1, CHUNK_SIZE);
+    }
+
+    private void allocateChunk(int chunk, int capacity) {
+        kinds[chunk] = new byte[capacity];
+        firsts[chunk] = new long[capacity];
+        seconds[chunk] = new long[capacity];
+        descStarts[chunk] = new int[capacity];
+        descLengths[chunk] = new int[capacity];
+    }
+
+    /**
+     * Moves the live descriptions into a new arena once more than half of the old one is garbage.
+     */
+    private void compactIfWasteful() {
+        if (arenaUsed < MIN_ARENA || arenaGarbage * 2 <= arenaUsed) {
+            return;
+        }
+        int live = (int) (arenaUsed - arenaGarbage);
+        ByteBuffer compacted = ByteBuffer.allocateDirect(Math.max(MIN_ARENA, live + live / 2));
+        int used = 0;
+        for (int i = 0; i < size; i++) {
+            int length = descLengthAt(i);
+            copyArena(arena, descStartAt(i), compacted, used, length);
+            unshare(i >>> CHUNK_SHIFT);
+            descStarts[i >>> CHUNK_SHIFT][i & CHUNK_MASK] = used;
+            used += length;
+        }
+        arena = compacted;
+        arenaUsed = used;
+        arenaGarbage = 0;
+    }
+
+    private static void copyArena(ByteBuffer from, int fromStart, ByteBuffer to, int toStart, int length) {
+        to.put(toStart, from, fromStart, length);
+    }
+
+    private void checkWritable() {
+        if (isReadOnly) {
+            throw new UnsupportedOperationException("A copy of a columnar task list cannot be changed");
+        }
+    }
+
+    private void checkIndex(int idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+    }
+}
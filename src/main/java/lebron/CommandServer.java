@@ -0,0 +1,169 @@
+package lebron;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Serves one task list to several local clients at once over the loopback interface.
+ * Each client sends commands one per line and gets back Lebron's reply, followed by a line starting with {@code #}
+ * that ends the reply and reports how long the request took. Commands that only read the list run concurrently;
+ * commands that change it run one at a time, with no reads in between. Saying bye ends the client's session
+ * with a summary of its requests, and leaves the list open to the other clients. Undo and redo are turned down, as
+ * the undo history is shared and would revert whichever client changed the list last.
+ * Usage: {@code CommandServer [port] [save file]}.
+ */
+public class CommandServer {
+    /** The port the server listens on unless told otherwise. */
+    public static final int DEFAULT_PORT = 4141;
+
+    private final Lebron lebron;
+    private final Ui ui = new Ui();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
+    /**
+     * Creates a server for the given instance of Lebron.
+     *
+     * @param lebron the instance whose task list is served.
+     */
+    public CommandServer(Lebron lebron) {
+        this.lebron = lebron;
+    }
+
+    /**
+     * Starts the server and serves clients until the process is stopped, and then saves every change.
+     *
+     * @param args the port and the save file, both optional.
+     * @throws IOException if the port cannot be listened on.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Lebron lebron = new Lebron(args.length > 1 ? args[1] : Lebron.DEFAULT_SAVE_PATH);
+        try {
+            new CommandServer(lebron).serve(new ServerSocket(port, 50, InetAddress.getLoopbackAddress()));
+        } finally {
+            try {
+                lebron.close();
+            } catch (LebronException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Accepts clients on the given socket until it is closed, serving each one on its own thread.
+     *
+     * @param server the socket to accept clients on.
+     * @throws IOException if accepting a client fails for any reason other than the socket being closed.
+     */
+    public void serve(ServerSocket server) throws IOException {
+        ExecutorService sessions = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "lebron-client-" + sessionCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try (server) {
+            while (!server.isClosed()) {
+                Socket client;
+                try {
+                    client = server.accept();
+                } catch (IOException e) {
+                    if (server.isClosed()) {
+                        return;
+                    }
+                    throw e;
+                }
+                sessions.execute(() -> serveClient(client));
+            }
+        } finally {
+            sessions.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs one command, holding the write lock if it can change the list and the read lock otherwise.
+     * Bye only ends the client's session, and undo and redo are refused.
+     *
+     * @param pc the parsed command.
+     * @return Lebron's reply.
+     */
+    public String execute(Parser.ParsedCommand pc) {
+        switch (pc.getType()) {
+        case BYE:
+            // Lebron saves and closes the list for everyone, so that is left until the server stops
+            return ui.bye();
+        case UNDO: case REDO:
+            return ui.showError("Error - Undo and redo are not available while the list is shared.");
+        default:
+            break;
+        }
+        Lock held = Lebron.isReadOnly(pc) ? lock.readLock() : lock.writeLock();
+        held.lock();
+        try {
+            return lebron.run(pc);
+        } finally {
+            held.unlock();
+        }
+    }
+
+    private void serveClient(Socket client) {
+        int requests = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        try (client;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                long start = System.nanoTime();
+                Parser.ParsedCommand pc = null;
+                String reply;
+                try {
+                    pc = Parser.parse(line.trim());
+                    reply = execute(pc);
+                } catch (LebronException e) {
+                    // Input that does not parse changes nothing, so it needs no lock to be answered
+                    reply = e.getMessage();
+                }
+                long nanos = System.nanoTime() - start;
+                requests++;
+                totalNanos += nanos;
+                maxNanos = Math.max(maxNanos, nanos);
+
+                out.write(reply);
+                out.write("\n# " + formatMillis(nanos) + " ms\n");
+                if (pc != null && pc.getType() == Parser.CommandType.BYE) {
+                    out.write("# session: " + requests + " requests, mean " + formatMillis(totalNanos / requests)
+                            + " ms, max " + formatMillis(maxNanos) + " ms\n");
+                    out.flush();
+                    return;
+                }
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // The client went away; its changes are already in the task list
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.3f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,357 @@
+package lebron;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Reads and writes the dates of deadlines and events without going through {@link DateTimeFormatter}.
+ * Input is {@code yyyy-M-d} or {@code yyyy-M-d HHmm}, recognised in a single pass that never throws, and accepted
+ * exactly as {@code DateTimeFormatter.ofPattern} with its default smart resolver would: a day past the end of the
+ * month is moved back to its last day, and {@code 2400} is midnight at the end of the day. Dates are packed into
+ * a single number, an epoch day or, with a time, an epoch minute.
+ * Save files repeat the same dates many times over, so recently parsed strings are remembered.
+ */
+public final class DateCodec {
+    /** Returned when a string is not a date of the kind asked for. */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    private static final long DAYS_PER_CYCLE = 146097;
+    private static final long DAYS_0000_TO_1970 = (DAYS_PER_CYCLE * 5L) - (30L * 365L + 7L);
+    private static final long MAX_YEAR = 999_999_999;
+    private static final long MAX_EPOCH_DAY = LocalDate.MAX.toEpochDay();
+    private static final int MAX_DIGITS = 19;
+
+    private static final byte KIND_INVALID = 0;
+    private static final byte KIND_DATE = 1;
+    private static final byte KIND_DATE_TIME = 2;
+
+    private static final int CACHE_SIZE = 1024;
+    private static final Entry[] CACHE = new Entry[CACHE_SIZE];
+
+    // Names in the default locale, as the formatters this codec replaces would print them
+    private static final String[] MONTHS = new String[12];
+    private static final String AM = DateTimeFormatter.ofPattern("a").format(LocalTime.MIDNIGHT);
+    private static final String PM = DateTimeFormatter.ofPattern("a").format(LocalTime.NOON);
+
+    static {
+        DateTimeFormatter month = DateTimeFormatter.ofPattern("MMM");
+        for (int m = 1; m <= 12; m++) {
+            MONTHS[m - 1] = month.format(LocalDate.of(2000, m, 1));
+        }
+    }
+
+    /**
+     * A parsed string. Entries never change once made, so threads can share them without locking.
+     */
+    private static final class Entry {
+        private final String text;
+        private final byte kind;
+        private final long packed;
+
+        private Entry(String text, byte kind, long packed) {
+            this.text = text;
+            this.kind = kind;
+            this.packed = packed;
+        }
+    }
+
+    private DateCodec() {
+    }
+
+    /**
+     * Parses a date written as {@code yyyy-M-d}.
+     *
+     * @param s the string.
+     * @return the date as an epoch day, or {@link #INVALID} if the string is not such a date.
+     */
+    public static long parseDate(String s) {
+        Entry e = lookup(s);
+        return e.kind == KIND_DATE ? e.packed : INVALID;
+    }
+
+    /**
+     * Parses a date-time written as {@code yyyy-M-d HHmm}.
+     *
+     * @param s the string.
+     * @return the date-time as an epoch minute, or {@link #INVALID} if the string is not such a date-time.
+     */
+    public static long parseDateTime(String s) {
+        Entry e = lookup(s);
+        return e.kind == KIND_DATE_TIME ? e.packed : INVALID;
+    }
+
+    /**
+     * Formats a packed date or date-time as {@code yyyy-M-d} or {@code yyyy-M-d HHmm}, the way it is typed in.
+     *
+     * @param packed the epoch day, or the epoch minute if it has a time.
+     * @param hasTime whether there is a time.
+     * @return the formatted date.
+     */
+    public static String formatInput(long packed, boolean hasTime) {
+        long day = hasTime ? Math.floorDiv(packed, MINUTES_PER_DAY) : packed;
+        long ymd = civil(day);
+        StringBuilder sb = new StringBuilder(16);
+        appendYear(sb, year(ymd));
+        sb.append('-').append(month(ymd)).append('-').append(dayOfMonth(ymd));
+        if (hasTime) {
+            int minuteOfDay = (int) Math.floorMod(packed, MINUTES_PER_DAY);
+            sb.append(' ');
+            appendTwoDigits(sb, minuteOfDay / 60);
+            appendTwoDigits(sb, minuteOfDay % 60);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats a packed date or date-time for display, as {@code MMM d yyyy} or {@code MMM d yyyy, h:mm a}.
+     *
+     * @param packed the epoch day, or the epoch minute if it has a time.
+     * @param hasTime whether there is a time.
+     * @return the formatted date.
+     */
+    public static String formatDisplay(long packed, boolean hasTime) {
+        StringBuilder sb = new StringBuilder(24);
+        appendDisplay(sb, packed, hasTime);
+        return sb.toString();
+    }
+
+    /**
+     * Appends a packed date or date-time as {@link #formatDisplay} formats it, without building a string for it.
+     *
+     * @param sb the builder to append to.
+     * @param packed the epoch day, or the epoch minute if it has a time.
+     * @param hasTime whether there is a time.
+     */
+    public static void appendDisplay(StringBuilder sb, long packed, boolean hasTime) {
+        long day = hasTime ? Math.floorDiv(packed, MINUTES_PER_DAY) : packed;
+        appendDisplayDate(sb, day, false);
+        if (hasTime) {
+            int minuteOfDay = (int) Math.floorMod(packed, MINUTES_PER_DAY);
+            int hour = minuteOfDay / 60;
+            sb.append(", ").append(hour % 12 == 0 ? 12 : hour % 12).append(':');
+            appendTwoDigits(sb, minuteOfDay % 60);
+            sb.append(' ').append(hour < 12 ? AM : PM);
+        }
+    }
+
+    /**
+     * Formats a date for display with a two-digit day, as {@code MMM dd yyyy}.
+     *
+     * @param epochDay the date as an epoch day.
+     * @return the formatted date.
+     */
+    public static String formatDay(long epochDay) {
+        StringBuilder sb = new StringBuilder(16);
+        appendDisplayDate(sb, epochDay, true);
+        return sb.toString();
+    }
+
+    private static Entry lookup(String s) {
+        int slot = s.hashCode() & (CACHE_SIZE - 1);
+        Entry e = CACHE[slot];
+        if (e != null && e.text.equals(s)) {
+            return e;
+        }
+        e = parse(s);
+        CACHE[slot] = e;
+        return e;
+    }
+
+    /**
+     * Scans a string once, recognising either format.
+     */
+    private static Entry parse(String s) {
+        int n = s.length();
+        int i = 0;
+
+        // Year of era: exactly four digits, or a plus sign and more than four
+        boolean isSigned = n > 0 && s.charAt(0) == '+';
+        if (isSigned) {
+            i++;
+        }
+        int yearStart = i;
+        long year = 0;
+        while (i < n && isDigit(s.charAt(i)) && i - yearStart < MAX_DIGITS) {
+            year = Math.min(year * 10 + (s.charAt(i) - '0'), MAX_YEAR + 1);
+            i++;
+        }
+        int yearDigits = i - yearStart;
+        if (isSigned ? yearDigits <= 4 : yearDigits != 4) {
+            return invalid(s);
+        }
+        if (year < 1 || year > MAX_YEAR) {
+            return invalid(s);
+        }
+
+        if (i >= n || s.charAt(i) != '-') {
+            return invalid(s);
+        }
+        i++;
+        int monthStart = i;
+        long month = 0;
+        while (i < n && isDigit(s.charAt(i)) && i - monthStart < MAX_DIGITS) {
+            month = Math.min(month * 10 + (s.charAt(i) - '0'), 100);
+            i++;
+        }
+        if (i == monthStart || month < 1 || month > 12) {
+            return invalid(s);
+        }
+
+        if (i >= n || s.charAt(i) != '-') {
+            return invalid(s);
+        }
+        i++;
+        int dayStart = i;
+        long day = 0;
+        while (i < n && isDigit(s.charAt(i)) && i - dayStart < MAX_DIGITS) {
+            day = Math.min(day * 10 + (s.charAt(i) - '0'), 100);
+            i++;
+        }
+        if (i == dayStart || day < 1 || day > 31) {
+            return invalid(s);
+        }
+        // The smart resolver moves a day past the end of the month back to its last day
+        day = Math.min(day, lengthOfMonth(year, (int) month));
+        long epochDay = epochDay(year, (int) month, (int) day);
+
+        if (i == n) {
+            return new Entry(s, KIND_DATE, epochDay);
+        }
+        if (n - i != 5 || s.charAt(i) != ' ') {
+            return invalid(s);
+        }
+        for (int j = i + 1; j < n; j++) {
+            if (!isDigit(s.charAt(j))) {
+                return invalid(s);
+            }
+        }
+        int hour = (s.charAt(i + 1) - '0') * 10 + (s.charAt(i + 2) - '0');
+        int minute = (s.charAt(i + 3) - '0') * 10 + (s.charAt(i + 4) - '0');
+        if (minute > 59 || hour > 24 || (hour == 24 && minute != 0)) {
+            return invalid(s);
+        }
+        if (hour == 24 && epochDay == MAX_EPOCH_DAY) {
+            // Midnight at the end of the last day there is
+            return invalid(s);
+        }
+        return new Entry(s, KIND_DATE_TIME, epochDay * MINUTES_PER_DAY + hour * 60 + minute);
+    }
+
+    private static Entry invalid(String s) {
+        return new Entry(s, KIND_INVALID, INVALID);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLeap(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(long year, int month) {
+        switch (month) {
+        case 2:
+            return isLeap(year) ? 29 : 28;
+        case 4: case 6: case 9: case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Counts the days from 1970-01-01 to the given date, as {@link LocalDate#toEpochDay()} does.
+     */
+    private static long epochDay(long year, int month, int day) {
+        long total = 365 * year;
+        if (year >= 0) {
+            total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        } else {
+            total -= year / -4 - year / -100 + year / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeap(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Finds the date of an epoch day, as {@link LocalDate#ofEpochDay(long)} does, packed as year, month and day.
+     */
+    private static long civil(long epochDay) {
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60;
+        long adjust = 0;
+        if (zeroDay < 0) {
+            long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+        }
+        long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        yearEst += adjust;
+        int marchDoy0 = (int) doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12 + 1;
+        int day = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        yearEst += marchMonth0 / 10;
+        return (yearEst << 9) | ((long) month << 5) | day;
+    }
+
+    private static long year(long ymd) {
+        return ymd >> 9;
+    }
+
+    private static int month(long ymd) {
+        return (int) (ymd >> 5) & 0xF;
+    }
+
+    private static int dayOfMonth(long ymd) {
+        return (int) ymd & 0x1F;
+    }
+
+    private static void appendDisplayDate(StringBuilder sb, long epochDay, boolean isDayPadded) {
+        long ymd = civil(epochDay);
+        sb.append(MONTHS[month(ymd) - 1]).append(' ');
+        if (isDayPadded) {
+            appendTwoDigits(sb, dayOfMonth(ymd));
+        } else {
+            sb.append(dayOfMonth(ymd));
+        }
+        sb.append(' ');
+        appendYear(sb, year(ymd));
+    }
+
+    /**
+     * Appends the year of era as {@code yyyy} prints it: padded to four digits, or signed if it needs more.
+     */
+    private static void appendYear(StringBuilder sb, long year) {
+        long yearOfEra = year >= 1 ? year : 1 - year;
+        if (yearOfEra > 9999) {
+            sb.append('+').append(yearOfEra);
+            return;
+        }
+        for (long p = 1000; p > 1 && yearOfEra < p; p /= 10) {
+            sb.append('0');
+        }
+        sb.append(yearOfEra);
+    }
+
+    private static void appendTwoDigits(StringBuilder sb, int value) {
+        if (value < 10) {
+            sb.append('0');
+        }
+        sb.append(value);
+    }
+}
@@ -0,0 +1,208 @@
+package lebron;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of the dates of deadlines and events, by epoch day.
+ * Deadlines are kept in a sorted map from their due day. Events are kept in an interval tree: a treap ordered by
+ * start day, where every node also records the latest end day in its subtree, so that subtrees holding no event
+ * that reaches the queried range can be skipped.
+ */
+public class DateIndex {
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private final TreeMap<Long, Set<Task>> deadlines = new TreeMap<>();
+    private final Random random = new Random();
+    private Node events;
+
+    /**
+     * A node of the event interval tree.
+     */
+    private static final class Node {
+        private final Event event;
+        private final long from;
+        private final long to;
+        private final int priority;
+        private long maxTo;
+        private Node left;
+        private Node right;
+
+        private Node(Event event, long from, long to, int priority) {
+            this.event = event;
+            this.from = from;
+            this.to = to;
+            this.priority = priority;
+            this.maxTo = to;
+        }
+    }
+
+    /**
+     * Adds a task to the index. Tasks without dates are ignored.
+     *
+     * @param t the task.
+     */
+    public void add(Task t) {
+        if (t instanceof Deadline) {
+            deadlines.computeIfAbsent(dayOf((Deadline) t), k -> new HashSet<>()).add(t);
+        } else if (t instanceof Event) {
+            Event e = (Event) t;
+            events = insert(events, new Node(e, fromDayOf(e), toDayOf(e), random.nextInt()));
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param t the task.
+     */
+    public void remove(Task t) {
+        if (t instanceof Deadline) {
+            long day = dayOf((Deadline) t);
+            Set<Task> tasks = deadlines.get(day);
+            if (tasks != null) {
+                tasks.remove(t);
+                if (tasks.isEmpty()) {
+                    deadlines.remove(day);
+                }
+            }
+        } else if (t instanceof Event) {
+            Event e = (Event) t;
+            events = delete(events, e, fromDayOf(e));
+        }
+    }
+
+    /**
+     * Returns the deadlines due and the events taking place on any day of the given range.
+     *
+     * @param fromDay the first day of the range, as an epoch day.
+     * @param toDay the last day of the range, as an epoch day.
+     * @return the tasks, in no particular order.
+     */
+    public List<Task> between(long fromDay, long toDay) {
+        List<Task> result = new ArrayList<>();
+        for (Set<Task> tasks : deadlines.subMap(fromDay, true, toDay, true).values()) {
+            result.addAll(tasks);
+        }
+        collectOverlapping(events, fromDay, toDay, result);
+        return result;
+    }
+
+    private static void collectOverlapping(Node n, long fromDay, long toDay, List<Task> result) {
+        if (n == null || n.maxTo < fromDay) {
+            return;
+        }
+        collectOverlapping(n.left, fromDay, toDay, result);
+        if (n.from > toDay) {
+            // Everything to the right starts even later
+            return;
+        }
+        if (n.to >= fromDay) {
+            result.add(n.event);
+        }
+        collectOverlapping(n.right, fromDay, toDay, result);
+    }
+
+    private static Node insert(Node n, Node added) {
+        if (n == null) {
+            return added;
+        }
+        if (added.from < n.from) {
+            n.left = insert(n.left, added);
+            if (n.left.priority > n.priority) {
+                n = rotateRight(n);
+            }
+        } else {
+            n.right = insert(n.right, added);
+            if (n.right.priority > n.priority) {
+                n = rotateLeft(n);
+            }
+        }
+        update(n);
+        return n;
+    }
+
+    private static Node delete(Node n, Event e, long from) {
+        if (n == null) {
+            return null;
+        }
+        if (n.event == e) {
+            return merge(n.left, n.right);
+        }
+        // Events starting on the same day may sit on either side after rotations
+        if (from <= n.from) {
+            n.left = delete(n.left, e, from);
+        }
+        if (from >= n.from) {
+            n.right = delete(n.right, e, from);
+        }
+        update(n);
+        return n;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private static void update(Node n) {
+        long maxTo = n.to;
+        if (n.left != null) {
+            maxTo = Math.max(maxTo, n.left.maxTo);
+        }
+        if (n.right != null) {
+            maxTo = Math.max(maxTo, n.right.maxTo);
+        }
+        n.maxTo = maxTo;
+    }
+
+    private static long dayOf(Deadline d) {
+        return toDay(d.getPackedBy(), d.getHasTime());
+    }
+
+    private static long fromDayOf(Event e) {
+        return toDay(e.getPackedFrom(), e.getHasTime());
+    }
+
+    private static long toDayOf(Event e) {
+        return toDay(e.getPackedTo(), e.getHasTime());
+    }
+
+    private static long toDay(long packed, boolean hasTime) {
+        return hasTime ? Math.floorDiv(packed, MINUTES_PER_DAY) : packed;
+    }
+}
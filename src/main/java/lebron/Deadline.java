@@ -1,21 +1,15 @@
 package lebron;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 /**
  * A task that must be completed by a specific date/hasTime, specified after /by
+ * The due date is kept packed into a single number, an epoch day or an epoch minute, rather than as date objects.
  */
 public class Deadline extends Task {
-    private static final DateTimeFormatter INPUT_DATE = DateTimeFormatter.ofPattern("yyyy-M-d");
-    private static final DateTimeFormatter INPUT_DATETIME = DateTimeFormatter.ofPattern("yyyy-M-d HHmm");
-    private static final DateTimeFormatter OUTPUT_DATE = DateTimeFormatter.ofPattern("MMM d yyyy");
-    private static final DateTimeFormatter OUTPUT_DATETIME = DateTimeFormatter.ofPattern("MMM d yyyy, h:mm a");
+    private static final long MINUTES_PER_DAY = 24 * 60;
 
-    protected LocalDate byDate;
-    protected LocalDateTime byDateTime;
+    protected long by;
     protected boolean hasTime;
 
     /**
@@ -30,6 +24,19 @@ public class Deadline extends Task {
         parseBy(by);
     }
 
+    /**
+     * Creates a Deadline task from a packed date/hasTime, as produced by {@link #getPackedBy()}.
+     *
+     * @param description description of the task.
+     * @param packedBy the due date as an epoch day, or the due date-time as an epoch minute.
+     * @param hasTime whether the deadline has a time.
+     */
+    Deadline(String description, long packedBy, boolean hasTime) {
+        super(description);
+        this.hasTime = hasTime;
+        this.by = packedBy;
+    }
+
     /**
      * Parses the date/hasTime the task has to be done by.
      * Ensures that formatting is correct and can be understood by other functions in the program.
@@ -44,24 +51,16 @@ public class Deadline extends Task {
 
         by = by.trim();
 
-        // Parse as 'yyyy-MM-dd HHmm'
-        try {
-            this.byDateTime = LocalDateTime.parse(by, INPUT_DATETIME);
-            this.hasTime = true;
-        } catch (DateTimeParseException e1) {
-            // Not a valid date-hasTime format, try to parse as 'yyyy-MM-dd'
-            try {
-                this.byDate = LocalDate.parse(by, INPUT_DATE);
-                this.hasTime = false;
-            } catch (DateTimeParseException e2) {
-                // Not a valid date format
-                throw new LebronException("Enter a valid Deadline format:\n\n"
-                        + "    yyyy-MM-dd HHmm\n"
-                        + "    yyyy-MM-dd");
-            }
+        // Parse as 'yyyy-MM-dd HHmm', and failing that as 'yyyy-MM-dd'
+        long minute = DateCodec.parseDateTime(by);
+        long day = minute == DateCodec.INVALID ? DateCodec.parseDate(by) : DateCodec.INVALID;
+        if (minute == DateCodec.INVALID && day == DateCodec.INVALID) {
+            throw new LebronException("Enter a valid Deadline format:\n\n"
+                    + "    yyyy-MM-dd HHmm\n"
+                    + "    yyyy-MM-dd");
         }
-
-        assert (byDate != null) ^ (byDateTime != null) : "One and only one myst be set";
+        this.hasTime = minute != DateCodec.INVALID;
+        this.by = hasTime ? minute : day;
     }
 
     /**
@@ -70,11 +69,7 @@ public class Deadline extends Task {
      * @return the deadline string.
      */
     public String getBy() {
-        if (hasTime) {
-            return byDateTime.format(OUTPUT_DATETIME);
-        } else {
-            return byDate.format(OUTPUT_DATE);
-        }
+        return DateCodec.formatDisplay(by, hasTime);
     }
 
     /**
@@ -83,11 +78,20 @@ public class Deadline extends Task {
      * @return the original deadline string.
      */
     public String getOriginalBy() {
-        if (hasTime) {
-            return byDateTime.format(INPUT_DATETIME);
-        } else {
-            return byDate.format(INPUT_DATE);
-        }
+        return DateCodec.formatInput(by, hasTime);
+    }
+
+    /**
+     * Returns the deadline packed into a single number: an epoch day, or an epoch minute if it has a time.
+     *
+     * @return the packed deadline.
+     */
+    long getPackedBy() {
+        return by;
+    }
+
+    public boolean getHasTime() {
+        return hasTime;
     }
 
     /**
@@ -97,16 +101,20 @@ public class Deadline extends Task {
      * @return the boolean.
      */
     public boolean isOnDate(LocalDate date) {
-        return hasTime ? byDateTime.toLocalDate().equals(date) : byDate.equals(date);
+        long day = date.toEpochDay();
+        if (!hasTime) {
+            return by == day;
+        }
+        return by >= day * MINUTES_PER_DAY && by < (day + 1) * MINUTES_PER_DAY;
     }
 
     /**
-     * Returns a human-readable string for display.
+     * Builds the human-readable string for display.
      *
      * @return Human-readable string.
      */
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (by: " + this.getBy() + ")";
+    protected String render() {
+        return "[D]" + super.render() + " (by: " + this.getBy() + ")";
     }
 }
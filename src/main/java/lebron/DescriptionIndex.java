@@ -0,0 +1,197 @@
+package lebron;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram index over the lower-cased descriptions of tasks.
+ * Any description containing a keyword also contains every trigram of that keyword, so intersecting the tasks
+ * listed under each trigram narrows a search down to a handful of candidates to check with {@code contains}.
+ * Each task is numbered as it is added, and each trigram lists the numbers of its tasks in a sorted array, so a
+ * task costs four bytes per trigram of its description, besides the map entry that records its number.
+ */
+public class DescriptionIndex {
+    // Renumbering is only worth it once this many numbers have been freed, and more are free than in use
+    private static final int MIN_RENUMBER = 1024;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Task, Integer> ordinals = new IdentityHashMap<>();
+    private Task[] tasks = new Task[16];
+    private int nextOrdinal;
+    private int freed;
+
+    /**
+     * The sorted numbers of the tasks whose descriptions contain a trigram.
+     */
+    private static final class Postings {
+        private int[] ordinals = new int[2];
+        private int size;
+
+        /**
+         * Adds a number larger than any held so far, once.
+         */
+        private void append(int ordinal) {
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        private void remove(int ordinal) {
+            int i = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (i >= 0) {
+                System.arraycopy(ordinals, i + 1, ordinals, i, size - i - 1);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * Adds a task to the index.
+     *
+     * @param t the task.
+     */
+    public void add(Task t) {
+        if (nextOrdinal == tasks.length) {
+            tasks = Arrays.copyOf(tasks, nextOrdinal * 2);
+        }
+        int ordinal = nextOrdinal++;
+        tasks[ordinal] = t;
+        ordinals.put(t, ordinal);
+
+        String desc = t.getDescription().toLowerCase();
+        for (int i = 0; i + 3 <= desc.length(); i++) {
+            postings.computeIfAbsent(trigram(desc, i), k -> new Postings()).append(ordinal);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param t the task.
+     */
+    public void remove(Task t) {
+        Integer ordinal = ordinals.remove(t);
+        if (ordinal == null) {
+            return;
+        }
+        String desc = t.getDescription().toLowerCase();
+        for (int i = 0; i + 3 <= desc.length(); i++) {
+            long key = trigram(desc, i);
+            Postings p = postings.get(key);
+            if (p != null) {
+                p.remove(ordinal);
+                if (p.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+        tasks[ordinal] = null;
+        freed++;
+        if (freed >= MIN_RENUMBER && freed > nextOrdinal - freed) {
+            renumber();
+        }
+    }
+
+    /**
+     * Returns the tasks that contain every trigram of every keyword. Each of them may contain all the keywords,
+     * and no other task does.
+     *
+     * @param keywords the lower-cased keywords.
+     * @return the candidate tasks, or null if no keyword is long enough to have a trigram.
+     */
+    public List<Task> candidates(List<String> keywords) {
+        List<Postings> lists = new ArrayList<>();
+        for (String keyword : keywords) {
+            for (int i = 0; i + 3 <= keyword.length(); i++) {
+                Postings p = postings.get(trigram(keyword, i));
+                if (p == null) {
+                    return List.of();
+                }
+                lists.add(p);
+            }
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+
+        // Start from the shortest list, so that every intersection after it is at most that long
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists.get(0).ordinals, lists.get(0).size);
+        int size = result.length;
+        for (int k = 1; k < lists.size() && size > 0; k++) {
+            size = intersect(result, size, lists.get(k));
+        }
+
+        List<Task> candidates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            candidates.add(tasks[result[i]]);
+        }
+        return candidates;
+    }
+
+    /**
+     * Keeps the numbers in the first {@code size} entries of {@code result} that the postings also hold.
+     *
+     * @return the number of entries kept.
+     */
+    private static int intersect(int[] result, int size, Postings p) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < p.size; i++) {
+            // Gallop past the postings below the next number, as the postings are usually far longer
+            int target = result[i];
+            int step = 1;
+            int hi = j;
+            while (hi < p.size && p.ordinals[hi] < target) {
+                j = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            j = Arrays.binarySearch(p.ordinals, j, Math.min(hi + 1, p.size), target);
+            if (j >= 0) {
+                result[kept++] = target;
+                j++;
+            } else {
+                j = -j - 1;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Numbers the remaining tasks from zero again, keeping their order, so that the numbers of deleted tasks do not
+     * keep the task table growing.
+     */
+    private void renumber() {
+        int[] renumbered = new int[nextOrdinal];
+        int live = 0;
+        for (int i = 0; i < nextOrdinal; i++) {
+            Task t = tasks[i];
+            if (t != null) {
+                renumbered[i] = live;
+                ordinals.put(t, live);
+                tasks[live++] = t;
+            }
+        }
+        Arrays.fill(tasks, live, nextOrdinal, null);
+        for (Postings p : postings.values()) {
+            for (int i = 0; i < p.size; i++) {
+                p.ordinals[i] = renumbered[p.ordinals[i]];
+            }
+        }
+        nextOrdinal = live;
+        freed = 0;
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
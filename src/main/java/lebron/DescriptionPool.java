@@ -0,0 +1,94 @@
+package lebron;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares one copy of each description between the tasks that repeat it, such as daily chores or recurring meetings.
+ * The pool is a fixed number of slots, picked by the hash of the description, each holding the last description
+ * seen there. Slots only hold their descriptions weakly, so the pool never keeps a deleted task's text alive, and a
+ * description that collides with another just replaces it. Any number of threads can use the pool without locking.
+ */
+public final class DescriptionPool {
+    /** The pool used when tasks are loaded and added, sized by the {@code lebron.intern.size} system property. */
+    static final DescriptionPool SHARED = new DescriptionPool(Integer.getInteger("lebron.intern.size", 4096));
+
+    // Rough sizes of a string's object and of its array's header, as on a 64-bit JVM with compressed pointers
+    private static final int STRING_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final AtomicReferenceArray<WeakReference<String>> slots;
+    private final LongAdder sharedCount = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Creates a pool with at least the given number of slots, rounded up to a power of two.
+     *
+     * @param size the number of slots, or 0 to switch pooling off.
+     */
+    public DescriptionPool(int size) {
+        int capacity = size <= 0 ? 0 : Integer.highestOneBit(Math.min(size, 1 << 30) * 2 - 1);
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Returns the pooled copy of a description equal to the given one, or pools the given one if there is none.
+     *
+     * @param description the description.
+     * @return an equal description, shared with every other task that was given one.
+     */
+    public String intern(String description) {
+        int capacity = slots.length();
+        if (capacity == 0 || description == null) {
+            return description;
+        }
+        int slot = description.hashCode() & (capacity - 1);
+        WeakReference<String> ref = slots.get(slot);
+        String pooled = ref == null ? null : ref.get();
+        if (pooled == description) {
+            return pooled;
+        }
+        if (pooled != null && pooled.equals(description)) {
+            sharedCount.increment();
+            savedBytes.add(sizeOf(description));
+            return pooled;
+        }
+        slots.set(slot, new WeakReference<>(description));
+        return description;
+    }
+
+    /**
+     * Returns how many copies of descriptions were dropped in favour of a pooled one.
+     *
+     * @return the number of descriptions shared.
+     */
+    public long getSharedCount() {
+        return sharedCount.sum();
+    }
+
+    /**
+     * Returns roughly how many bytes the dropped copies took up.
+     *
+     * @return the estimated bytes saved.
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Estimates the heap taken by a string: its object and an array of one byte per character, or two if any
+     * character does not fit in one, rounded up to 8 bytes.
+     */
+    private static long sizeOf(String s) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        long array = ARRAY_HEADER_BYTES + (long) s.length() * bytesPerChar;
+        return STRING_BYTES + ((array + 7) & ~7L);
+    }
+}
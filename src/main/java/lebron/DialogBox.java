@@ -1,15 +1,13 @@
 package lebron;
 
-import java.io.IOException;
 import java.util.Collections;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
 import javafx.geometry.Insets;
 import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
 import javafx.scene.shape.Circle;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
@@ -20,25 +18,35 @@ import javafx.scene.layout.HBox;
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ * The box is built in code rather than loaded from FXML, so that creating one only costs constructing its nodes.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    private static final double AVATAR_SIZE = 64.0;
+
+    private final Label dialog;
+    private final ImageView displayPicture;
 
     private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        dialog = new Label(text);
+        dialog.setId("dialog");
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        dialog.setMaxWidth(260.0);
+        dialog.getStyleClass().add("bubble");
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
+        displayPicture = new ImageView(img);
+        displayPicture.setId("displayPicture");
+        displayPicture.setFitWidth(AVATAR_SIZE);
+        displayPicture.setFitHeight(AVATAR_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+
+        getChildren().addAll(dialog, displayPicture);
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(400.0);
+        setPadding(new Insets(8.0));
+        setSpacing(12.0);
 
         // Cursor assisted: Allow wrapping to take available space and style via CSS classes
         this.getStyleClass().add("dialog-row");
@@ -54,6 +62,15 @@ public class DialogBox extends HBox {
         displayPicture.setClip(clip);
     }
 
+    /**
+     * Replaces the text in the dialog box, so that the box can be reused for another message.
+     *
+     * @param text the text.
+     */
+    void setText(String text) {
+        dialog.setText(text);
+    }
+
     /**
      * Flips the dialog box such that the ImageView is on the left and text on the right.
      */
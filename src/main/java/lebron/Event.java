@@ -1,23 +1,16 @@
 package lebron;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 /**
  * A task that spans a date or date-time range (from ... to ...).
+ * The start and end are kept packed into single numbers, epoch days or epoch minutes, rather than as date objects.
  */
 public class Event extends Task {
-    private static final DateTimeFormatter INPUT_DATE = DateTimeFormatter.ofPattern("yyyy-M-d");
-    private static final DateTimeFormatter INPUT_DATETIME = DateTimeFormatter.ofPattern("yyyy-M-d HHmm");
-    private static final DateTimeFormatter OUTPUT_DATE = DateTimeFormatter.ofPattern("MMM d yyyy");
-    private static final DateTimeFormatter OUTPUT_DATETIME = DateTimeFormatter.ofPattern("MMM d yyyy, h:mm a");
-
-    protected LocalDate fromDate;
-    protected LocalDateTime fromDateTime;
-    protected LocalDate toDate;
-    protected LocalDateTime toDateTime;
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    protected long from;
+    protected long to;
     protected boolean hasTime;
 
     /**
@@ -33,6 +26,22 @@ public class Event extends Task {
         parseFromTo(from, to);
     }
 
+    /**
+     * Creates an event from packed start and end date/times, as produced by {@link #getPackedFrom()}
+     * and {@link #getPackedTo()}.
+     *
+     * @param description description of the task.
+     * @param packedFrom the start as an epoch day, or as an epoch minute if the event has times.
+     * @param packedTo the end, packed the same way as the start.
+     * @param hasTime whether the event has times.
+     */
+    Event(String description, long packedFrom, long packedTo, boolean hasTime) {
+        super(description);
+        this.hasTime = hasTime;
+        this.from = packedFrom;
+        this.to = packedTo;
+    }
+
     /**
      * Parses the date/time the event starts and ends.
      * Ensures that formatting is correct and can be understood by other functions in the program.
@@ -53,35 +62,33 @@ public class Event extends Task {
         from = from.trim();
         to = to.trim();
 
-        // Parse as 'yyyy-MM-dd HHmm'
-        try {
-            this.fromDateTime = LocalDateTime.parse(from, INPUT_DATETIME);
-            this.toDateTime = LocalDateTime.parse(to, INPUT_DATETIME);
-            this.hasTime = true;
-            if (fromDateTime.isAfter(toDateTime)) {
+        // Parse both as 'yyyy-MM-dd HHmm', and failing that both as 'yyyy-MM-dd'
+        long fromMinute = DateCodec.parseDateTime(from);
+        long toMinute = DateCodec.parseDateTime(to);
+        if (fromMinute != DateCodec.INVALID && toMinute != DateCodec.INVALID) {
+            if (fromMinute > toMinute) {
                 throw new LebronException("Event start time cannot be after end time");
             }
-        } catch (DateTimeParseException e1) {
-            // Not a valid date-time format, try to parse as 'yyyy-MM-dd'
-            try {
-                this.fromDate = LocalDate.parse(from, INPUT_DATE);
-                this.toDate = LocalDate.parse(to, INPUT_DATE);
-                this.hasTime = false;
-                if (fromDate.isAfter(toDate)) {
-                    throw new LebronException("Event start date cannot be after end date");
-                }
-            } catch (DateTimeParseException e2) {
-                // Not a valid date format
-                System.out.println(from);
-                throw new LebronException("Enter dates in a valid format:\n\n"
-                        + "    yyyy-MM-dd HHmm\n"
-                        + "    yyyy-MM-dd\n\n"
-                        + "Note that both Start and End must have the same time format.");
-            }
+            this.from = fromMinute;
+            this.to = toMinute;
+            this.hasTime = true;
+            return;
         }
 
-        assert (fromDate != null) ^ (fromDateTime != null) : "One and only one myst be set";
-        assert (toDate != null) ^ (toDateTime != null) : "One and only one myst be set";
+        long fromDay = DateCodec.parseDate(from);
+        long toDay = DateCodec.parseDate(to);
+        if (fromDay == DateCodec.INVALID || toDay == DateCodec.INVALID) {
+            throw new LebronException("Enter dates in a valid format:\n\n"
+                    + "    yyyy-MM-dd HHmm\n"
+                    + "    yyyy-MM-dd\n\n"
+                    + "Note that both Start and End must have the same time format.");
+        }
+        if (fromDay > toDay) {
+            throw new LebronException("Event start date cannot be after end date");
+        }
+        this.from = fromDay;
+        this.to = toDay;
+        this.hasTime = false;
     }
 
     /**
@@ -90,11 +97,7 @@ public class Event extends Task {
      * @return the formatted start date/time.
      */
     public String getFrom() {
-        if (hasTime) {
-            return fromDateTime.format(OUTPUT_DATETIME);
-        } else {
-            return fromDate.format(OUTPUT_DATE);
-        }
+        return DateCodec.formatDisplay(from, hasTime);
     }
 
     /**
@@ -103,11 +106,7 @@ public class Event extends Task {
      * @return the formatted end date/time.
      */
     public String getTo() {
-        if (hasTime) {
-            return toDateTime.format(OUTPUT_DATETIME);
-        } else {
-            return toDate.format(OUTPUT_DATE);
-        }
+        return DateCodec.formatDisplay(to, hasTime);
     }
 
     /**
@@ -116,11 +115,7 @@ public class Event extends Task {
      * @return the formatted start date/time.
      */
     public String getOriginalFrom() {
-        if (hasTime) {
-            return fromDateTime.format(INPUT_DATETIME);
-        } else {
-            return fromDate.format(INPUT_DATE);
-        }
+        return DateCodec.formatInput(from, hasTime);
     }
 
     /**
@@ -129,11 +124,29 @@ public class Event extends Task {
      * @return the formatted end date/time.
      */
     public String getOriginalTo() {
-        if (hasTime) {
-            return toDateTime.format(INPUT_DATETIME);
-        } else {
-            return toDate.format(INPUT_DATE);
-        }
+        return DateCodec.formatInput(to, hasTime);
+    }
+
+    /**
+     * Returns the start packed into a single number: an epoch day, or an epoch minute if the event has times.
+     *
+     * @return the packed start.
+     */
+    long getPackedFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the end packed into a single number: an epoch day, or an epoch minute if the event has times.
+     *
+     * @return the packed end.
+     */
+    long getPackedTo() {
+        return to;
+    }
+
+    public boolean getHasTime() {
+        return hasTime;
     }
 
     /**
@@ -143,18 +156,20 @@ public class Event extends Task {
      * @return the boolean.
      */
     public boolean isOnDate(LocalDate date) {
-        LocalDate from = hasTime ? fromDateTime.toLocalDate() : fromDate;
-        LocalDate to = hasTime ? toDateTime.toLocalDate() : toDate;
-        return !date.isBefore(from) && !date.isAfter(to);
+        long day = date.toEpochDay();
+        if (!hasTime) {
+            return from <= day && day <= to;
+        }
+        return from < (day + 1) * MINUTES_PER_DAY && to >= day * MINUTES_PER_DAY;
     }
 
     /**
-     * Returns a human-readable string for display.
+     * Builds the human-readable string for display.
      *
      * @return Human-readable string.
      */
     @Override
-    public String toString() {
-        return "[E]" + super.toString() + " (from: " + this.getFrom() + " to: " + this.getTo() + ")";
+    protected String render() {
+        return "[E]" + super.render() + " (from: " + this.getFrom() + " to: " + this.getTo() + ")";
     }
 }
@@ -0,0 +1,184 @@
+package lebron;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of task list mutations kept beside the snapshot save file.
+ * Every generation of the log lives in its own file, so once a snapshot has folded in all generations
+ * before a given one, those older files can simply be deleted.
+ */
+public class Journal {
+    private static final String SUFFIX = ".journal.";
+
+    private final Path snapshotPath;
+    private long generation;
+    private FileChannel channel;
+    private BufferedWriter writer;
+    private int recordCount;
+
+    /**
+     * Creates a journal for the given snapshot file. No file is opened until {@link #open(long, int)} is called.
+     *
+     * @param snapshotPath path to the snapshot save file.
+     */
+    public Journal(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    /**
+     * Returns the journal files with a generation of at least {@code base}, oldest first.
+     *
+     * @param base the lowest generation to include.
+     * @return the journal files.
+     * @throws IOException if the save directory cannot be listed.
+     */
+    public List<Path> filesFrom(long base) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path f : listFiles()) {
+            if (generationOf(f) >= base) {
+                files.add(f);
+            }
+        }
+        files.sort(Comparator.comparingLong(this::generationOf));
+        return files;
+    }
+
+    /**
+     * Returns the generation number encoded in a journal file name.
+     *
+     * @param file the journal file.
+     * @return the generation, or -1 if the name is not a journal file name.
+     */
+    public long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        String prefix = snapshotPath.getFileName() + SUFFIX;
+        if (!name.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Opens the given generation for appending.
+     *
+     * @param gen the generation to append to.
+     * @param existingRecords number of records already in that generation.
+     * @throws IOException if the file cannot be opened.
+     */
+    public synchronized void open(long gen, int existingRecords) throws IOException {
+        close();
+        this.generation = gen;
+        this.recordCount = existingRecords;
+        this.channel = FileChannel.open(fileFor(gen), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Appends a batch of records and flushes them to the operating system once.
+     *
+     * @param records the records, without trailing newlines.
+     * @throws IOException if the write fails.
+     */
+    public synchronized void appendAll(List<String> records) throws IOException {
+        assert writer != null : "Journal must be opened before appending";
+        for (String record : records) {
+            writer.write(record);
+            writer.write("\n");
+        }
+        writer.flush();
+        recordCount += records.size();
+    }
+
+    /**
+     * Forces every record appended so far out to the disk.
+     *
+     * @throws IOException if the force fails.
+     */
+    public synchronized void force() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Seals the current generation and starts appending to a fresh one.
+     *
+     * @return the new generation. Every record before it belongs to an older generation.
+     * @throws IOException if the new file cannot be opened.
+     */
+    public synchronized long roll() throws IOException {
+        open(generation + 1, 0);
+        return generation;
+    }
+
+    /**
+     * Deletes every journal file older than the given generation.
+     *
+     * @param gen the oldest generation to keep.
+     * @throws IOException if a file cannot be deleted.
+     */
+    public void deleteBefore(long gen) throws IOException {
+        for (Path f : listFiles()) {
+            long g = generationOf(f);
+            if (g >= 0 && g < gen) {
+                Files.deleteIfExists(f);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of records appended to the current generation.
+     *
+     * @return the record count.
+     */
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Closes the current generation, if one is open.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            channel = null;
+        }
+    }
+
+    private Path fileFor(long gen) {
+        return snapshotPath.resolveSibling(snapshotPath.getFileName() + SUFFIX + gen);
+    }
+
+    private List<Path> listFiles() throws IOException {
+        Path dir = snapshotPath.toAbsolutePath().getParent();
+        List<Path> files = new ArrayList<>();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return files;
+        }
+        try (Stream<Path> s = Files.list(dir)) {
+            s.filter(f -> generationOf(f) >= 0).forEach(files::add);
+        }
+        return files;
+    }
+}
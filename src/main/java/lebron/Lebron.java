@@ -1,19 +1,24 @@
 package lebron;
 
-import java.util.EmptyStackException;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * Class that combines UI, Storage and TaskList.
  */
 public class Lebron {
+    /** Where tasks are saved unless told otherwise. */
+    public static final String DEFAULT_SAVE_PATH = "./LebronData/Lebron.txt";
+    private static final int DEFAULT_UNDO_LIMIT = 1000;
 
     private final Storage storage;
     private final TaskList taskList;
+    private final Persister persister;
     private final Ui ui;
-    private Stack<Parser.ParsedCommand> history = new Stack<>();
-    private Stack<Task> deletedTasks = new Stack<>();
+    private final UndoLog undoLog;
+    private final boolean isUndoPersisted;
+    private boolean isBatching;
 
     /**
      * Constructs the program, wiring the UI and storage, load any previously saved tasks from the given file path.
@@ -25,15 +30,28 @@ public class Lebron {
         this.storage = new Storage(filePath);
 
         TaskList temp;
+        String list = System.getProperty("lebron.list", "array").trim();
+        TaskList.Backing backing = list.equalsIgnoreCase("tree") ? TaskList.Backing.TREE
+                : list.equalsIgnoreCase("columnar") ? TaskList.Backing.COLUMNAR
+                : TaskList.Backing.ARRAY;
 
         try {
             List<Task> loaded = storage.loadTasks();
-            temp = new TaskList(loaded);
+            temp = new TaskList(loaded, backing);
         } catch (LebronException e) {
             ui.showLoadingError(e.getMessage());
-            temp = new TaskList();
+            temp = new TaskList(List.of(), backing);
         }
         this.taskList = temp;
+        // The undo log keeps the last lebron.undo.limit changes, and is only kept across restarts if asked to
+        int undoLimit = Math.max(1, Integer.getInteger("lebron.undo.limit", DEFAULT_UNDO_LIMIT));
+        this.isUndoPersisted = Boolean.getBoolean("lebron.undo.persist");
+        this.undoLog = isUndoPersisted
+                ? storage.loadUndoLog(taskList.size(), undoLimit)
+                : new UndoLog(undoLimit);
+        // Saving happens on a background thread unless write-behind is switched off
+        boolean isWriteBehind = Boolean.parseBoolean(System.getProperty("lebron.writeBehind", "true"));
+        this.persister = new Persister(storage, taskList, isWriteBehind);
         assert ui != null && storage != null && taskList != null : "Core components must be initialised by now";
     }
 
@@ -45,23 +63,46 @@ public class Lebron {
      * @return Lebron's reply.
      */
     public String run(String input) {
-        String reply = "";
+        Parser.ParsedCommand pc;
         try {
-            String command = input.trim();
-            Parser.ParsedCommand pc = Parser.parse(command);
+            pc = Parser.parse(input.trim());
+        } catch (LebronException e) {
+            return ui.showError(e.getMessage());
+        }
+        return run(pc);
+    }
 
+    /**
+     * Runs a command that has already been parsed, like {@link #run(String)}.
+     *
+     * @param pc the parsed command.
+     * @return Lebron's reply.
+     */
+    public String run(Parser.ParsedCommand pc) {
+        String reply = "";
+        try {
             switch (pc.getType()) {
             case HI:
                 reply = ui.greeting();
                 break;
             case BYE:
+                if (!isBatching) {
+                    close();
+                    if (isUndoPersisted) {
+                        storage.saveUndoLog(undoLog, taskList.size());
+                    }
+                }
                 reply = ui.bye();
                 break;
+            case STATS:
+                reply = ui.showStats(taskList.size(), persister.getUnflushedCount(), persister.getLagMillis(),
+                        DescriptionPool.SHARED.getSharedCount(), DescriptionPool.SHARED.getSavedBytes());
+                break;
             case CHECK:
-                reply = ui.handleCheck(taskList, pc.getArg1());
+                reply = ui.handleCheck(taskList, pc.getArg1(), pc.getArg2());
                 break;
             case LIST: {
-                reply = ui.handleList(taskList);
+                reply = ui.handleList(taskList, pc.getOffset(), pc.getLimit());
                 break;
             }
             case FIND: {
@@ -69,114 +110,246 @@ public class Lebron {
                 break;
             }
             case MARK: {
+                boolean wasDone = isDoneAt(pc.getIndex());
                 Task t = taskList.mark(pc.getIndex());
                 reply = ui.showMarked(t);
-                storage.saveTasks(taskList.all());
-                history.add(pc);
+                persister.recordMark(pc.getIndex());
+                undoLog.record(wasDone ? UndoLog.MARK_DONE : UndoLog.MARK, pc.getIndex(), null);
                 break;
             }
             case UNMARK: {
+                boolean wasDone = isDoneAt(pc.getIndex());
                 Task t = taskList.unmark(pc.getIndex());
                 reply = ui.showUnmarked(t);
-                storage.saveTasks(taskList.all());
-                history.add(pc);
+                persister.recordUnmark(pc.getIndex());
+                undoLog.record(wasDone ? UndoLog.UNMARK : UndoLog.UNMARK_UNDONE, pc.getIndex(), null);
                 break;
             }
             case DELETE: {
                 Task removed = taskList.delete(pc.getIndex());
-                this.deletedTasks.add(removed);
                 reply = ui.showDeleted(removed, taskList.size());
-                storage.saveTasks(taskList.all());
-                history.add(pc);
+                persister.recordDelete(pc.getIndex());
+                undoLog.record(UndoLog.DELETE, pc.getIndex(), removed);
                 break;
             }
             case TODO: {
-                Task t = new Todo(pc.getArg1());
-                reply = handleTaskCreation(t, pc);
+                Task t = new Todo(DescriptionPool.SHARED.intern(pc.getArg1()));
+                reply = handleTaskCreation(t);
                 break;
             }
             case DEADLINE: {
-                Task t = new Deadline(pc.getArg1(), pc.getArg2());
-                reply = handleTaskCreation(t, pc);
+                Task t = new Deadline(DescriptionPool.SHARED.intern(pc.getArg1()), pc.getArg2());
+                reply = handleTaskCreation(t);
                 break;
             }
             case EVENT: {
-                Task t = new Event(pc.getArg1(), pc.getArg2(), pc.getArg3());
-                reply = handleTaskCreation(t, pc);
+                Task t = new Event(DescriptionPool.SHARED.intern(pc.getArg1()), pc.getArg2(), pc.getArg3());
+                reply = handleTaskCreation(t);
                 break;
             }
             case UNDO: {
                 reply = handleUndo();
                 break;
             }
+            case REDO: {
+                reply = handleRedo();
+                break;
+            }
             // there should not be a default because the commands have already been filtered through Parser
             default: {
                 throw new LebronException("Error - Lebron does not know what you are talking about.");
             }
             }
-        } catch (LebronException e) {
+        } catch (LebronException | MappedTaskList.CorruptLineException e) {
             reply = ui.showError(e.getMessage());
         }
         return reply;
     }
 
+    /**
+     * Saves every change still waiting, waits for the journal to finish folding into the save file and stops
+     * saving in the background. Lebron can still be used afterwards; its changes are then saved as they are made.
+     *
+     * @throws LebronException if the changes could not be saved.
+     */
+    public void close() throws LebronException {
+        persister.close();
+    }
+
+    /**
+     * Runs a command like {@link #run(String)}, but writes the reply to the given output instead of returning it.
+     * The reply to a list is written out as it is produced, so even a long list is never held in memory whole.
+     *
+     * @param input user's input.
+     * @param out where to write Lebron's reply.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void run(String input, Appendable out) throws IOException {
+        Parser.ParsedCommand pc;
+        try {
+            pc = Parser.parse(input.trim());
+        } catch (LebronException e) {
+            out.append(ui.showError(e.getMessage()));
+            return;
+        }
+        if (pc.getType() == Parser.CommandType.LIST) {
+            try {
+                ui.writeList(taskList, pc.getOffset(), pc.getLimit(), out);
+            } catch (MappedTaskList.CorruptLineException e) {
+                out.append(ui.showError(e.getMessage()));
+            }
+        } else {
+            out.append(run(pc));
+        }
+    }
+
     /**
      * Handles task creation operations (TODO, DEADLINE, EVENT).
      * 
      * @param task the task to add
-     * @param command the parsed command for history tracking
      * @return the response message
      */
-    private String handleTaskCreation(Task task, Parser.ParsedCommand command) throws LebronException {
+    private String handleTaskCreation(Task task) throws LebronException {
         taskList.add(task);
         String reply = ui.showAdded(task, taskList.size());
-        storage.saveTasks(taskList.all());
-        history.add(command);
+        persister.recordAdd(task);
+        undoLog.record(UndoLog.ADD, taskList.size(), task);
         return reply;
     }
     
     /**
-     * Handles undo operations by reverting the last command.
+     * Runs a sequence of commands as one unit: their changes are saved in a single flush once the last command
+     * has run, and a later undo reverts all of them together.
+     * While the batch runs, undo and redo within it step one change at a time through the changes the batch has
+     * made; beyond those, they undo and redo whole earlier changes as usual, such as all of an earlier batch.
+     *
+     * @param inputs the user's inputs, one command each.
+     * @return Lebron's reply to each command, in order.
+     * @throws LebronException if the changes could not be saved.
+     */
+    public List<String> runBatch(List<String> inputs) throws LebronException {
+        List<String> replies = new ArrayList<>(inputs.size());
+        isBatching = true;
+        undoLog.beginGroup();
+        persister.hold();
+        try {
+            for (String input : inputs) {
+                replies.add(run(input));
+            }
+        } finally {
+            undoLog.endGroup();
+            isBatching = false;
+            persister.drain();
+        }
+        return replies;
+    }
+
+    /**
+     * Handles undo operations by reverting the last command, or every command of the last batch.
      * 
      * @return the response message
      */
     private String handleUndo() {
+        List<UndoLog.Entry> entries = undoLog.undo();
+        if (entries.isEmpty()) {
+            return ui.showError("Error - Nothing to undo.");
+        }
+        List<String> replies = new ArrayList<>();
+        for (UndoLog.Entry e : entries) {
+            replies.add(apply(UndoLog.inverse(e.getKind()), e.getIndex(), e.getTask()));
+        }
+        return String.join("\n", replies);
+    }
+
+    /**
+     * Handles redo operations by making the last undone command, or batch, again.
+     *
+     * @return the response message
+     */
+    private String handleRedo() {
+        List<UndoLog.Entry> entries = undoLog.redo();
+        if (entries.isEmpty()) {
+            return ui.showError("Error - Nothing to redo.");
+        }
+        List<String> replies = new ArrayList<>();
+        for (UndoLog.Entry e : entries) {
+            replies.add(apply(e.getKind(), e.getIndex(), e.getTask()));
+        }
+        return String.join("\n", replies);
+    }
+
+    /**
+     * Makes a change from the undo log to the list: inserts the task at the index, deletes the task there,
+     * or marks it as done or not done.
+     *
+     * @return the response message
+     */
+    private String apply(byte kind, int idx, Task task) {
         try {
-            Parser.ParsedCommand lastCommand = history.pop();
-            switch (lastCommand.getType()) {
-            case MARK: {
-                Task t = taskList.unmark(lastCommand.getIndex());
-                String reply = ui.showUnmarked(t);
-                storage.saveTasks(taskList.all());
-                return reply;
-            }
-            case UNMARK: {
-                Task t = taskList.mark(lastCommand.getIndex());
-                String reply = ui.showMarked(t);
-                storage.saveTasks(taskList.all());
+            switch (kind) {
+            case UndoLog.ADD: {
+                taskList.insert(idx, task);
+                String reply = ui.showAdded(task, taskList.size());
+                persister.recordInsert(idx, task);
                 return reply;
             }
-            case DELETE: {
-                Task t = deletedTasks.pop();
-                taskList.add(t);
-                String reply = ui.showAdded(t, taskList.size());
-                storage.saveTasks(taskList.all());
+            case UndoLog.DELETE: {
+                Task removed = taskList.delete(idx);
+                String reply = ui.showDeleted(removed, taskList.size());
+                persister.recordDelete(idx);
                 return reply;
             }
-            case EVENT: case DEADLINE: case TODO: {
-                Task removed = taskList.delete(taskList.size());
-                String reply = ui.showDeleted(removed, taskList.size());
-                storage.saveTasks(taskList.all());
+            case UndoLog.MARK: case UndoLog.MARK_DONE: {
+                Task t = taskList.mark(idx);
+                String reply = ui.showMarked(t);
+                persister.recordMark(idx);
                 return reply;
             }
             default: {
-                throw new LebronException("Error - Nothing to undo");
+                Task t = taskList.unmark(idx);
+                String reply = ui.showUnmarked(t);
+                persister.recordUnmark(idx);
+                return reply;
             }
             }
-        } catch (EmptyStackException | LebronException e) {
-            return ui.showError("Error - Nothing to undo.");
+        } catch (LebronException e) {
+            return ui.showError(e.getMessage());
         }
-    }    
+    }
+
+    private boolean isDoneAt(int idx) {
+        return idx >= 1 && idx <= taskList.size() && taskList.get(idx - 1).getIsDone();
+    }
+
+    /**
+     * Returns whether the given input only reads the task list, so that it can safely run alongside other reads.
+     * Input that cannot be parsed changes nothing either, as it only gets an error reply.
+     *
+     * @param input user's input.
+     * @return true if running the input cannot change the task list or the undo history.
+     */
+    public static boolean isReadOnly(String input) {
+        try {
+            return isReadOnly(Parser.parse(input.trim()));
+        } catch (LebronException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Returns whether the given command only reads the task list, so that it can safely run alongside other reads.
+     *
+     * @param pc the parsed command.
+     * @return true if running the command cannot change the task list or the undo history.
+     */
+    public static boolean isReadOnly(Parser.ParsedCommand pc) {
+        switch (pc.getType()) {
+        case HI: case LIST: case FIND: case CHECK: case STATS:
+            return true;
+        default:
+            return false;
+        }
+    }
 
     /**
      * Simply passes the user input into the run command and gets a response
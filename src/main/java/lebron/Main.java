@@ -12,8 +12,7 @@ import javafx.stage.Stage;
  * Class that starts the GUI
  */
 public class Main extends Application {
-    private static final String DEFAULT_SAVE_PATH = "./LebronData/Lebron.txt";
-    private final Lebron lebron = new Lebron(DEFAULT_SAVE_PATH);
+    private final Lebron lebron = new Lebron(Lebron.DEFAULT_SAVE_PATH);
 
     /**
      * Sets up stage and other GUI elements.
@@ -33,4 +32,16 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Saves every change still waiting once the window has closed, whether or not the user said bye.
+     */
+    @Override
+    public void stop() {
+        try {
+            lebron.close();
+        } catch (LebronException e) {
+            System.err.println(e.getMessage());
+        }
+    }
 }
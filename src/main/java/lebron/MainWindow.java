@@ -1,12 +1,16 @@
 package lebron;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.layout.HBox;
@@ -15,28 +19,113 @@ import javafx.animation.PauseTransition;
 import javafx.util.Duration;
 /**
  * Controller for the main GUI.
+ * The transcript is a list view, so only the messages in sight are laid out as live dialog boxes; scrolling
+ * reuses the same few boxes for other messages. Only the latest {@code lebron.gui.historyLimit} messages are kept.
+ * Commands run one at a time, in the order they were sent, on a background thread, so that a slow command never
+ * freezes the window; a small indicator shows how many are still waiting for a reply.
  */
 public class MainWindow extends AnchorPane {
+    private static final int DEFAULT_HISTORY_LIMIT = 1000;
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<Message> transcript;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private Label pendingIndicator;
 
     private Lebron lebron;
+    private int pendingCount;
+    private final ExecutorService commands = Executors.newSingleThreadExecutor(r -> {
+        // Daemon so that a command still running never holds the app open once the window is closed
+        Thread t = new Thread(r, "lebron-commands");
+        t.setDaemon(true);
+        return t;
+    });
+    private final int historyLimit = Math.max(1, Integer.getInteger("lebron.gui.historyLimit", DEFAULT_HISTORY_LIMIT));
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/DaUser.png"));
     private Image lebronImage = new Image(this.getClass().getResourceAsStream("/images/DaLebron.png"));
 
     /**
-     * Initialises the scroll pane and dialog container.
+     * Who a message in the transcript is from.
+     */
+    private enum Speaker { WELCOME, USER, LEBRON }
+
+    /**
+     * A message in the transcript.
+     */
+    private static final class Message {
+        private final Speaker speaker;
+        private final String text;
+
+        private Message(Speaker speaker, String text) {
+            this.speaker = speaker;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Shows a message in the transcript. Each cell builds a box for each kind of message once, and only changes
+     * its text as the cell is reused for other messages.
+     */
+    private final class TranscriptCell extends ListCell<Message> {
+        private DialogBox userDialog;
+        private DialogBox lebronDialog;
+        private HBox welcome;
+
+        private TranscriptCell() {
+            // Fits the cell to the width of the list, so that long replies wrap instead of scrolling sideways
+            setPrefWidth(0);
+        }
+
+        @Override
+        protected void updateItem(Message message, boolean isEmpty) {
+            super.updateItem(message, isEmpty);
+            setText(null);
+            if (isEmpty || message == null) {
+                setGraphic(null);
+                return;
+            }
+
+            switch (message.speaker) {
+            case USER:
+                if (userDialog == null) {
+                    userDialog = DialogBox.getUserDialog(message.text, userImage);
+                }
+                userDialog.setText(message.text);
+                setGraphic(userDialog);
+                break;
+            case LEBRON:
+                if (lebronDialog == null) {
+                    lebronDialog = DialogBox.getLebronDialog(message.text, lebronImage);
+                }
+                lebronDialog.setText(message.text);
+                setGraphic(lebronDialog);
+                break;
+            default:
+                if (welcome == null) {
+                    // Cursor assisted: welcome banner card on startup
+                    Label label = new Label(message.text);
+                    label.getStyleClass().add("welcome-card");
+                    welcome = new HBox(label);
+                    welcome.setPadding(new Insets(8, 8, 12, 8));
+                }
+                setGraphic(welcome);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Initialises the transcript.
      */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        transcript.setCellFactory(list -> new TranscriptCell());
+        transcript.setFocusTraversable(false);
         // Cursor assisted: Apply stylesheet if available and focus the input on start
         Scene scene = this.getScene();
         if (scene != null) {
@@ -59,33 +148,61 @@ public class MainWindow extends AnchorPane {
      */
     public void setLebron(Lebron l) {
         lebron = l;
-        // Cursor assisted: welcome banner card on startup
-        Label welcome = new Label("Hello! I'm Lebron\nWhat can I do for you?");
-        welcome.getStyleClass().add("welcome-card");
-        HBox container = new HBox(welcome);
-        container.setPadding(new Insets(8, 8, 12, 8));
-        dialogContainer.getChildren().add(container);
+        show(new Message(Speaker.WELCOME, "Hello! I'm Lebron\nWhat can I do for you?"));
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Lebron's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Adds the user input to the transcript and queues it to run on the background thread; Lebron's reply is added
+     * once it is ready. Clears the user input straight away, so that the next command can be typed meanwhile.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = lebron.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getLebronDialog(response, lebronImage)
-        );
+        show(new Message(Speaker.USER, input));
         userInput.clear();
-        if (input.equals("bye")) {
+        boolean isBye = input.equals("bye");
+        if (isBye) {
+            // Nothing typed after bye would ever run
             userInput.setDisable(true);
             sendButton.setDisable(true);
+        }
+
+        pendingCount++;
+        showPending();
+        commands.execute(() -> {
+            String response = lebron.getResponse(input);
+            Platform.runLater(() -> showResponse(response, isBye));
+        });
+    }
+
+    /**
+     * Adds Lebron's reply to the transcript, and exits shortly after replying to bye.
+     */
+    private void showResponse(String response, boolean isBye) {
+        show(new Message(Speaker.LEBRON, response));
+        pendingCount--;
+        showPending();
+        if (isBye) {
             PauseTransition delay = new PauseTransition(Duration.millis(1200));
-            delay.setOnFinished(e -> javafx.application.Platform.exit());
+            delay.setOnFinished(e -> Platform.exit());
             delay.play();
         }
     }
+
+    private void showPending() {
+        pendingIndicator.setText(pendingCount == 1 ? "Working..." : "Working... (" + (pendingCount - 1) + " queued)");
+        pendingIndicator.setVisible(pendingCount > 0);
+    }
+
+    /**
+     * Appends messages to the transcript, forgetting the oldest ones beyond the history limit.
+     */
+    private void show(Message... messages) {
+        var items = transcript.getItems();
+        items.addAll(messages);
+        if (items.size() > historyLimit) {
+            items.remove(0, items.size() - historyLimit);
+        }
+        transcript.scrollTo(items.size() - 1);
+    }
 }
@@ -0,0 +1,312 @@
+package lebron;
+
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * List of tasks backed by a memory-mapped text save file.
+ * Only the offset of each line is known up front; a line is decoded into a task the first time it is read.
+ * Tasks added or replaced later are held as ordinary objects alongside the undecoded lines.
+ * A list and its copies share the lines of the file and decode each of them once, into a single task.
+ */
+public class MappedTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final int NOT_MAPPED = -1;
+
+    private final Lines lines;
+    private final boolean isReadOnly;
+    // The line each task was loaded from, or NOT_MAPPED for tasks added or replaced since
+    private int[] lineOf;
+    private Task[] tasks;
+    private int size;
+
+    /**
+     * Decodes a single line of the save file into a task.
+     */
+    @FunctionalInterface
+    public interface TaskDecoder {
+        /**
+         * Decodes a line of the save file.
+         *
+         * @param line the line, without its line terminator.
+         * @return the task, or null if the line does not hold a task.
+         * @throws LebronException if the line is malformed.
+         */
+        Task decode(String line) throws LebronException;
+    }
+
+    /**
+     * Thrown when a line of the save file turns out not to hold a valid task as it is read.
+     */
+    public static class CorruptLineException extends IllegalStateException {
+        /**
+         * Creates an exception for a corrupt line.
+         *
+         * @param message the message to show the user.
+         * @param cause the reason the line could not be decoded, if any.
+         */
+        public CorruptLineException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * The task lines of the mapped file and the tasks decoded from them so far.
+     */
+    private static final class Lines {
+        private final MappedByteBuffer buffer;
+        private final TaskDecoder decoder;
+        private final int[] starts;
+        private final Task[] decoded;
+
+        private Lines(MappedByteBuffer buffer, int[] starts, int count, TaskDecoder decoder) {
+            this.buffer = buffer;
+            this.decoder = decoder;
+            this.starts = starts;
+            this.decoded = new Task[count];
+        }
+
+        private synchronized Task get(int line) {
+            Task t = decoded[line];
+            if (t == null) {
+                t = decode(line);
+                decoded[line] = t;
+            }
+            return t;
+        }
+
+        private synchronized String rawLine(int line) {
+            return decoded[line] == null ? readLine(starts[line]) : null;
+        }
+
+        private char typeAt(int line) {
+            int i = starts[line];
+            while (buffer.get(i) == ' ' || buffer.get(i) == '\t') {
+                i++;
+            }
+            return (char) buffer.get(i);
+        }
+
+        /**
+         * Decodes a line. The index only keeps the lines the decoder would not skip, so this fails just for a line
+         * that the decoder rejects outright, which the eager load would have failed on too.
+         */
+        private Task decode(int line) {
+            String text = readLine(starts[line]);
+            try {
+                Task t = decoder.decode(text);
+                if (t == null) {
+                    throw new CorruptLineException("Error - Corrupt save file line: " + text, null);
+                }
+                return t;
+            } catch (LebronException e) {
+                throw new CorruptLineException(e.getMessage(), e);
+            }
+        }
+
+        private String readLine(int start) {
+            int end = start;
+            int limit = buffer.limit();
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            int len = end > start && buffer.get(end - 1) == '\r' ? end - start - 1 : end - start;
+            byte[] bytes = new byte[len];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Creates a list over the given lines of a mapped save file.
+     *
+     * @param buffer the mapped save file.
+     * @param starts the offset of the first byte of each task line, which the list takes over.
+     * @param size the number of task lines.
+     * @param decoder decodes a line into a task.
+     */
+    public MappedTaskList(MappedByteBuffer buffer, int[] starts, int size, TaskDecoder decoder) {
+        this.lines = new Lines(buffer, starts, size, decoder);
+        this.isReadOnly = false;
+        this.lineOf = new int[Math.max(size, 10)];
+        for (int i = 0; i < size; i++) {
+            lineOf[i] = i;
+        }
+        this.tasks = new Task[Math.max(size, 10)];
+        this.size = size;
+    }
+
+    private MappedTaskList(MappedTaskList other) {
+        this.lines = other.lines;
+        this.isReadOnly = true;
+        this.lineOf = Arrays.copyOf(other.lineOf, other.size);
+        this.tasks = Arrays.copyOf(other.tasks, other.size);
+        this.size = other.size;
+    }
+
+    /**
+     * Builds the line index of a mapped text save file, skipping the lines that the eager load skips: blank lines
+     * and lines that do not split into a type, a status and a description, such as the generation header.
+     * A line that is kept but is otherwise malformed only fails when it is read, with a
+     * {@link CorruptLineException}.
+     *
+     * @param buffer the mapped save file.
+     * @param decoder decodes a line into a task.
+     * @return the list of tasks in the file.
+     */
+    public static MappedTaskList index(MappedByteBuffer buffer, TaskDecoder decoder) {
+        int limit = buffer.limit();
+        int[] starts = new int[Math.max(16, limit / 32)];
+        int count = 0;
+        int lineStart = 0;
+
+        while (lineStart < limit) {
+            int end = lineStart;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            int textEnd = end > lineStart && buffer.get(end - 1) == '\r' ? end - 1 : end;
+            if (holdsTask(buffer, lineStart, textEnd)) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = lineStart;
+            }
+            lineStart = end + 1;
+        }
+        return new MappedTaskList(buffer, starts, count, decoder);
+    }
+
+    /**
+     * Returns whether splitting the line on {@code " | "} leaves at least three parts once trailing empty parts are
+     * dropped, which is the check the decoder makes before it skips a line.
+     */
+    private static boolean holdsTask(MappedByteBuffer buffer, int from, int to) {
+        int part = 0;
+        int lastFilled = -1;
+        int partStart = from;
+        int i = from;
+        while (i < to) {
+            if (i + 3 <= to && buffer.get(i) == ' ' && buffer.get(i + 1) == '|' && buffer.get(i + 2) == ' ') {
+                if (i > partStart) {
+                    lastFilled = part;
+                }
+                part++;
+                i += 3;
+                partStart = i;
+            } else {
+                i++;
+            }
+        }
+        if (to > partStart) {
+            lastFilled = part;
+        }
+        return lastFilled >= 2;
+    }
+
+    @Override
+    public synchronized Task get(int idx) {
+        checkIndex(idx);
+        Task t = tasks[idx];
+        if (t == null) {
+            t = lines.get(lineOf[idx]);
+            tasks[idx] = t;
+        }
+        return t;
+    }
+
+    @Override
+    public synchronized Task set(int idx, Task t) {
+        checkWritable();
+        Task old = get(idx);
+        tasks[idx] = t;
+        lineOf[idx] = NOT_MAPPED;
+        return old;
+    }
+
+    @Override
+    public synchronized void add(int idx, Task t) {
+        checkWritable();
+        if (idx < 0 || idx > size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+        if (size == tasks.length || size == lineOf.length) {
+            int capacity = Math.max(tasks.length, lineOf.length) * 3 / 2 + 1;
+            tasks = Arrays.copyOf(tasks, capacity);
+            lineOf = Arrays.copyOf(lineOf, capacity);
+        }
+        System.arraycopy(tasks, idx, tasks, idx + 1, size - idx);
+        System.arraycopy(lineOf, idx, lineOf, idx + 1, size - idx);
+        tasks[idx] = t;
+        lineOf[idx] = NOT_MAPPED;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public synchronized Task remove(int idx) {
+        checkWritable();
+        Task old = get(idx);
+        System.arraycopy(tasks, idx + 1, tasks, idx, size - idx - 1);
+        System.arraycopy(lineOf, idx + 1, lineOf, idx, size - idx - 1);
+        size--;
+        tasks[size] = null;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the type letter of the task at the given index without decoding it.
+     *
+     * @param idx the 0-based index of the task.
+     * @return 'T', 'D' or 'E'.
+     */
+    public synchronized char typeAt(int idx) {
+        checkIndex(idx);
+        if (tasks[idx] != null) {
+            return tasks[idx] instanceof Deadline ? 'D' : tasks[idx] instanceof Event ? 'E' : 'T';
+        }
+        return lines.typeAt(lineOf[idx]);
+    }
+
+    /**
+     * Returns the line of the save file the task at the given index was loaded from, if it has not been read by
+     * this list or any copy of it. Such a line can be written back out without decoding the task.
+     *
+     * @param idx the 0-based index of the task.
+     * @return the line, or null if the task has been decoded or was not loaded from the file.
+     */
+    public synchronized String rawLineAt(int idx) {
+        checkIndex(idx);
+        return tasks[idx] == null ? lines.rawLine(lineOf[idx]) : null;
+    }
+
+    /**
+     * Returns a read-only copy of this list that shares the mapped file and the tasks decoded from it with this
+     * list, so that a line read through either of them is the same task in both.
+     *
+     * @return the copy, whose methods that would change it throw {@link UnsupportedOperationException}.
+     */
+    public synchronized MappedTaskList copy() {
+        return new MappedTaskList(this);
+    }
+
+    private void checkWritable() {
+        if (isReadOnly) {
+            throw new UnsupportedOperationException("A copy of a mapped task list cannot be changed");
+        }
+    }
+
+    private void checkIndex(int idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+    }
+}
@@ -8,25 +8,64 @@ public class Parser {
      * Represents the different types of commands that can be issued by the user.
      * Each command corresponds to a specific action that the application can perform.
      */
-    public enum CommandType { HI, LIST, MARK, UNMARK, DELETE, TODO, DEADLINE, EVENT, BYE, CHECK, FIND, UNDO }
+    public enum CommandType {
+        HI, LIST, MARK, UNMARK, DELETE, TODO, DEADLINE, EVENT, BYE, CHECK, FIND, UNDO, REDO, STATS
+    }
 
     /**
      * Class that ensures all the commands are formatted properly
      * and its individual parts can be accessed easily
+     * The arguments are kept as spans of the input line and only copied out when first asked for.
      */
     public static final class ParsedCommand {
-        private CommandType type;
+        private static final int NONE = -1;
+
+        private final CommandType type;
+        private final String source;
+        private final int arg1Start;
+        private final int arg1End;
+        private final int arg2Start;
+        private final int arg2End;
+        private final int arg3Start;
+        private final int arg3End;
+        private final int index;
+        private final int offset;
+        private final int limit;
         private String arg1;
         private String arg2;
         private String arg3;
-        private int index;
 
-        private ParsedCommand(CommandType type, String arg1, String arg2, String arg3, int index) {
+        private ParsedCommand(CommandType type, String source, int arg1Start, int arg1End, int arg2Start,
+                int arg2End, int arg3Start, int arg3End, int index) {
             this.type = type;
-            this.arg1 = arg1;
-            this.arg2 = arg2;
-            this.arg3 = arg3;
+            this.source = source;
+            this.arg1Start = arg1Start;
+            this.arg1End = arg1End;
+            this.arg2Start = arg2Start;
+            this.arg2End = arg2End;
+            this.arg3Start = arg3Start;
+            this.arg3End = arg3End;
             this.index = index;
+            this.offset = 0;
+            this.limit = NONE;
+        }
+
+        private ParsedCommand(CommandType type, int index) {
+            this(type, null, NONE, NONE, NONE, NONE, NONE, NONE, index);
+        }
+
+        private ParsedCommand(CommandType type, int offset, int limit) {
+            this.type = type;
+            this.source = null;
+            this.arg1Start = NONE;
+            this.arg1End = NONE;
+            this.arg2Start = NONE;
+            this.arg2End = NONE;
+            this.arg3Start = NONE;
+            this.arg3End = NONE;
+            this.index = -1;
+            this.offset = offset;
+            this.limit = limit;
         }
 
         public CommandType getType() {
@@ -34,24 +73,75 @@ public class Parser {
         }
 
         public String getArg1() {
+            if (arg1 == null && arg1Start != NONE) {
+                arg1 = source.substring(arg1Start, arg1End);
+            }
             return this.arg1;
         }
 
         public String getArg2() {
+            if (arg2 == null && arg2Start != NONE) {
+                arg2 = source.substring(arg2Start, arg2End);
+            }
             return this.arg2;
         }
 
         public String getArg3() {
+            if (arg3 == null && arg3Start != NONE) {
+                arg3 = source.substring(arg3Start, arg3End);
+            }
             return this.arg3;
         }
 
         public int getIndex() {
             return this.index;
         }
+
+        /**
+         * Returns how many tasks a list command skips before the first one it shows.
+         *
+         * @return the number of tasks to skip.
+         */
+        public int getOffset() {
+            return this.offset;
+        }
+
+        /**
+         * Returns how many tasks a list command shows at most.
+         *
+         * @return the number of tasks to show, or -1 to show every task after the offset.
+         */
+        public int getLimit() {
+            return this.limit;
+        }
     }
 
+    /** The number of tasks on each page of {@code list <page>}. */
+    public static final int PAGE_SIZE = 20;
+
+    private static final ParsedCommand HI = new ParsedCommand(CommandType.HI, -1);
+    private static final ParsedCommand BYE = new ParsedCommand(CommandType.BYE, -1);
+    private static final ParsedCommand LIST = new ParsedCommand(CommandType.LIST, -1);
+    private static final ParsedCommand UNDO = new ParsedCommand(CommandType.UNDO, -1);
+    private static final ParsedCommand REDO = new ParsedCommand(CommandType.REDO, -1);
+    private static final ParsedCommand STATS = new ParsedCommand(CommandType.STATS, -1);
+
+    private static final String[] KEYWORDS = {
+        "hi", "bye", "list", "mark", "unmark", "delete", "todo", "deadline", "event", "check", "find", "undo", "redo",
+        "stats",
+    };
+    private static final CommandType[] KEYWORD_TYPES = {
+        CommandType.HI, CommandType.BYE, CommandType.LIST, CommandType.MARK, CommandType.UNMARK, CommandType.DELETE,
+        CommandType.TODO, CommandType.DEADLINE, CommandType.EVENT, CommandType.CHECK, CommandType.FIND,
+        CommandType.UNDO, CommandType.REDO, CommandType.STATS,
+    };
+    private static final int NONE = ParsedCommand.NONE;
+    private static final String LIST_USAGE = "Error - Use: list [<page>] or list [--limit <n>] [--offset <n>]";
+
     /**
      * Parses raw user input into a structured command.
+     * The input is scanned once, in place: the line is trimmed, split into the command word and the rest at the
+     * first run of whitespace, and the command word is matched ignoring case, all without copying any of it.
      *
      * @param raw the raw user input.
      * @return the parsedCommand.
@@ -61,103 +151,288 @@ public class Parser {
         if (raw == null || raw.isEmpty()) {
             throw new LebronException("Error - command cannot be empty.");
         }
-        String[] first = raw.trim().split("\\s+", 2);
-        String head = first[0].toLowerCase().trim();
-        String rest = first.length > 1 ? first[1] : "";
-
-        switch (head) {
-        case "hi":
-            return new ParsedCommand(CommandType.HI, null, null, null, -1);
-        case "bye":
-            return new ParsedCommand(CommandType.BYE, null, null, null, -1);
-        case "list":
-            if (!rest.isEmpty()) {
-                throw new LebronException("Error - command 'list' does not take arguments.");
-            }
-            return new ParsedCommand(CommandType.LIST, null, null, null, -1);
-        case "mark":
-            return new ParsedCommand(CommandType.MARK, null, null, null,
-                    parseIndex(rest, "mark <index>"));
-        case "unmark":
-            return new ParsedCommand(CommandType.UNMARK, null, null, null,
-                    parseIndex(rest, "unmark <index>"));
-        case "delete":
-            return new ParsedCommand(CommandType.DELETE, null, null, null,
-                    parseIndex(rest, "delete <index>"));
-        case "todo":
-            if (rest.isEmpty()) {
+        int start = trimStart(raw, 0, raw.length());
+        int end = trimEnd(raw, start, raw.length());
+        int headEnd = start;
+        while (headEnd < end && !isWhitespace(raw.charAt(headEnd))) {
+            headEnd++;
+        }
+        int restStart = headEnd;
+        while (restStart < end && isWhitespace(raw.charAt(restStart))) {
+            restStart++;
+        }
+        boolean hasRest = restStart < end;
+        CommandType type = keyword(raw, start, trimEnd(raw, start, headEnd));
+        if (type == null) {
+            throw new LebronException("Error - Lebron does not know what you are talking about.");
+        }
+
+        switch (type) {
+        case HI:
+            return HI;
+        case BYE:
+            return BYE;
+        case LIST:
+            return hasRest ? parseListRange(raw, restStart, end) : LIST;
+        case MARK:
+            return new ParsedCommand(CommandType.MARK, parseIndex(raw, restStart, end, "mark <index>"));
+        case UNMARK:
+            return new ParsedCommand(CommandType.UNMARK, parseIndex(raw, restStart, end, "unmark <index>"));
+        case DELETE:
+            return new ParsedCommand(CommandType.DELETE, parseIndex(raw, restStart, end, "delete <index>"));
+        case TODO:
+            if (!hasRest) {
                 throw new LebronException("Error - description of a todo cannot be empty.");
             }
-            return new ParsedCommand(CommandType.TODO, rest, null, null, -1);
-        case "deadline": {
-            int byPos = rest.indexOf("/by");
+            return new ParsedCommand(CommandType.TODO, raw, restStart, end, NONE, NONE, NONE, NONE, -1);
+        case DEADLINE: {
+            int byPos = hasRest ? raw.indexOf("/by", restStart) : -1;
             if (byPos < 0) {
                 throw new LebronException("Error - Use: deadline <description> /by <date>");
             }
-            String desc = rest.substring(0, byPos).trim();
-            String by = rest.substring(byPos + 3).trim();
-            if (desc.isEmpty() || by.isEmpty()) {
+            int descEnd = trimEnd(raw, restStart, byPos);
+            int byStart = trimStart(raw, byPos + 3, end);
+            if (descEnd == trimStart(raw, restStart, descEnd) || byStart == end) {
                 throw new LebronException("Error - deadline needs description and /by <date>.");
             }
-            return new ParsedCommand(CommandType.DEADLINE, desc, by, null, -1);
+            return new ParsedCommand(CommandType.DEADLINE, raw, trimStart(raw, restStart, descEnd), descEnd,
+                    byStart, end, NONE, NONE, -1);
         }
-        case "event": {
-            int fromPart = rest.indexOf("/from");
-            int toPart = rest.indexOf("/to");
+        case EVENT: {
+            int fromPart = hasRest ? raw.indexOf("/from", restStart) : -1;
+            int toPart = hasRest ? raw.indexOf("/to", restStart) : -1;
             if (fromPart < 0 || toPart < 0 || toPart <= fromPart) {
                 throw new LebronException("Error - Use: event <description> /from <from> /to <to>");
             }
-            String desc = rest.substring(0, fromPart).trim();
-            String from = rest.substring(fromPart + 5, toPart).trim();
-            String to = rest.substring(toPart + 3).trim();
-            if (desc.isEmpty() || from.isEmpty() || to.isEmpty()) {
+            int descEnd = trimEnd(raw, restStart, fromPart);
+            int descStart = trimStart(raw, restStart, descEnd);
+            int fromEnd = trimEnd(raw, fromPart + 5, toPart);
+            int fromStart = trimStart(raw, fromPart + 5, fromEnd);
+            int toStart = trimStart(raw, toPart + 3, end);
+            if (descStart == descEnd || fromStart == fromEnd || toStart == end) {
                 throw new LebronException("Error - event needs description, /from and /to.");
-            } else if (from.contains("–") || to.contains("–")) {
+            } else if (contains(raw, fromStart, fromEnd, '–') || contains(raw, toStart, end, '–')) {
                 throw new LebronException("Error - event start and end hasTime cannot contain character \"–\"");
             }
-            return new ParsedCommand(CommandType.EVENT, desc, from, to, -1);
+            return new ParsedCommand(CommandType.EVENT, raw, descStart, descEnd, fromStart, fromEnd, toStart, end, -1);
         }
-        case "check":
-            if (rest.isEmpty()) {
-                throw new LebronException("Error - Use: check <yyyy-MM-dd>");
+        case CHECK: {
+            int firstEnd = restStart;
+            while (firstEnd < end && !isWhitespace(raw.charAt(firstEnd))) {
+                firstEnd++;
             }
-            return new ParsedCommand(CommandType.CHECK, rest, null, null, -1);
-        case "find":
-            if (rest.isEmpty()) {
-                throw new LebronException("Error - keyword(s) not specified.");
+            int secondStart = firstEnd;
+            while (secondStart < end && isWhitespace(raw.charAt(secondStart))) {
+                secondStart++;
+            }
+            int secondEnd = secondStart;
+            while (secondEnd < end && !isWhitespace(raw.charAt(secondEnd))) {
+                secondEnd++;
+            }
+            if (!hasRest || secondEnd < end) {
+                throw new LebronException("Error - Use: check <yyyy-MM-dd> [<yyyy-MM-dd>]");
             }
-            return new ParsedCommand(CommandType.FIND, rest, null, null, -1);
-        case "undo": {
-            return new ParsedCommand(CommandType.UNDO, null, null, null, -1);
+            return secondStart < end
+                    ? new ParsedCommand(CommandType.CHECK, raw, restStart, firstEnd, secondStart, end, NONE, NONE, -1)
+                    : new ParsedCommand(CommandType.CHECK, raw, restStart, end, NONE, NONE, NONE, NONE, -1);
         }
+        case FIND:
+            if (!hasRest) {
+                throw new LebronException("Error - keyword(s) not specified.");
+            }
+            return new ParsedCommand(CommandType.FIND, raw, restStart, end, NONE, NONE, NONE, NONE, -1);
+        case UNDO:
+            return UNDO;
+        case REDO:
+            return REDO;
+        case STATS:
+            if (hasRest) {
+                throw new LebronException("Error - command 'stats' does not take arguments.");
+            }
+            return STATS;
 
         default:
             throw new LebronException("Error - Lebron does not know what you are talking about.");
         }
     }
 
+    /**
+     * Returns the command type named by the given span, ignoring case, or null if it names none.
+     */
+    private static CommandType keyword(String s, int from, int to) {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            if (matchesIgnoreCase(s, from, to, KEYWORDS[i])) {
+                return KEYWORD_TYPES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the span lower-cases to the given keyword, as {@link String#toLowerCase()} would have it.
+     * The only character that lower-cases to more than one is the dotted capital I, which never matches.
+     */
+    private static boolean matchesIgnoreCase(String s, int from, int to, String keyword) {
+        if (to - from != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = s.charAt(from + i);
+            char k = keyword.charAt(i);
+            if (c != k && (c == '\u0130' || Character.toLowerCase(c) != k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Determines the index of the task.
      *
-     * @param s the index of task to be marked/unmarked/deleted.
+     * @param s the input line.
+     * @param from the start of the index of task to be marked/unmarked/deleted.
+     * @param to the end of the index.
      * @param usage the correct, formatted usage instruction.
      * @return the int of the index.
      * @throws LebronException if there was a missing index or if the index specified was not a positive integer.
      */
-    private static int parseIndex(String s, String usage) throws LebronException {
-        s = s.trim();
-        if (s.isEmpty()) {
+    private static int parseIndex(String s, int from, int to, String usage) throws LebronException {
+        from = trimStart(s, from, to);
+        to = trimEnd(s, from, to);
+        if (from == to) {
             throw new LebronException("Error - missing index. Use: " + usage);
         }
-        try {
-            int val = Integer.parseInt(s);
-            if (val <= 0) {
-                throw new NumberFormatException();
+        // Same digits as Integer.parseInt; a minus sign can only give an index that is not positive
+        if (s.charAt(from) == '+') {
+            from++;
+        }
+        if (from == to || s.charAt(from) == '-') {
+            throw new LebronException("Error - index must be a positive integer.");
+        }
+        long val = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0) {
+                throw new LebronException("Error - index must be a positive integer.");
+            }
+            val = val * 10 + digit;
+            if (val > Integer.MAX_VALUE) {
+                throw new LebronException("Error - index must be a positive integer.");
             }
-            return val;
-        } catch (NumberFormatException e) {
+        }
+        if (val <= 0) {
             throw new LebronException("Error - index must be a positive integer.");
         }
+        return (int) val;
+    }
+
+    /**
+     * Parses the arguments of a list command: a page number, or a limit and an offset in either order.
+     *
+     * @param s the input line.
+     * @param from the start of the arguments.
+     * @param to the end of the arguments.
+     * @return the list command.
+     * @throws LebronException if the arguments are neither a page number nor options with counts.
+     */
+    private static ParsedCommand parseListRange(String s, int from, int to) throws LebronException {
+        int[] spans = new int[8];
+        int count = 0;
+        for (int i = from; i < to; ) {
+            int tokenEnd = i;
+            while (tokenEnd < to && !isWhitespace(s.charAt(tokenEnd))) {
+                tokenEnd++;
+            }
+            if (count == spans.length) {
+                throw new LebronException(LIST_USAGE);
+            }
+            spans[count++] = i;
+            spans[count++] = tokenEnd;
+            i = tokenEnd;
+            while (i < to && isWhitespace(s.charAt(i))) {
+                i++;
+            }
+        }
+
+        if (count == 2) {
+            int page = parseCount(s, spans[0], spans[1]);
+            if (page <= 0) {
+                throw new LebronException(LIST_USAGE);
+            }
+            return new ParsedCommand(CommandType.LIST, (int) Math.min((page - 1L) * PAGE_SIZE, Integer.MAX_VALUE),
+                    PAGE_SIZE);
+        }
+        int offset = NONE;
+        int limit = NONE;
+        for (int i = 0; i < count; i += 4) {
+            int value = i + 2 < count ? parseCount(s, spans[i + 2], spans[i + 3]) : NONE;
+            if (value < 0) {
+                throw new LebronException(LIST_USAGE);
+            }
+            if (offset == NONE && matchesIgnoreCase(s, spans[i], spans[i + 1], "--offset")) {
+                offset = value;
+            } else if (limit == NONE && value > 0 && matchesIgnoreCase(s, spans[i], spans[i + 1], "--limit")) {
+                limit = value;
+            } else {
+                throw new LebronException(LIST_USAGE);
+            }
+        }
+        return new ParsedCommand(CommandType.LIST, offset == NONE ? 0 : offset, limit);
     }
 
+    /**
+     * Parses a span of ASCII digits into a count.
+     *
+     * @return the count, or -1 if the span is not a count that fits in an int.
+     */
+    private static int parseCount(String s, int from, int to) {
+        long val = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return NONE;
+            }
+            val = val * 10 + (c - '0');
+            if (val > Integer.MAX_VALUE) {
+                return NONE;
+            }
+        }
+        return from == to ? NONE : (int) val;
+    }
+
+    /**
+     * Returns whether the character is whitespace as the regular expression {@code \s} defines it.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Skips the characters {@link String#trim()} would remove from the start of the span.
+     */
+    private static int trimStart(String s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Skips the characters {@link String#trim()} would remove from the end of the span.
+     */
+    private static int trimEnd(String s, int from, int to) {
+        while (to > from && s.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    private static boolean contains(String s, int from, int to, char c) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,355 @@
+package lebron;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Write-behind front end to {@link Storage}.
+ * Changes are queued in memory and a background thread persists them, so a command only pays for the in-memory
+ * edit. Every change queued while a flush is running is persisted together by the next flush: one journal append
+ * and force in journal mode, or a single rewrite of the save file otherwise.
+ */
+public class Persister {
+    private final Storage storage;
+    private final TaskList taskList;
+    private final boolean isAsync;
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    private final Thread worker;
+    private final Thread shutdownHook;
+
+    private List<Pending> pending = new ArrayList<>();
+    private int queued;
+    private int inFlight;
+    private long oldestQueuedNanos;
+    private long oldestInFlightNanos;
+    // Starts at the records replayed from the journal on load, which the next compaction folds in as well
+    private int recordsSinceCompaction;
+    private Future<?> lastCompaction;
+    private boolean isClosed;
+    private boolean isHeld;
+    private String error;
+
+    /**
+     * A queued journal record, or a copy of the tasks to compact the journal into.
+     */
+    private static final class Pending {
+        private final String record;
+        private final List<Task> compaction;
+
+        private Pending(String record, List<Task> compaction) {
+            this.record = record;
+            this.compaction = compaction;
+        }
+    }
+
+    /**
+     * Creates a persister for the given task list.
+     *
+     * @param storage the storage to persist to.
+     * @param taskList the task list whose changes are persisted.
+     * @param isAsync whether changes are persisted on a background thread rather than before each call returns.
+     */
+    public Persister(Storage storage, TaskList taskList, boolean isAsync) {
+        this.storage = storage;
+        this.taskList = taskList;
+        this.isAsync = isAsync;
+        this.recordsSinceCompaction = storage.getReplayedCount();
+        if (isAsync) {
+            this.worker = new Thread(this::runWorker, "lebron-persister");
+            // Daemon so that closing the window without saying bye still exits; the shutdown hook drains the queue
+            worker.setDaemon(true);
+            worker.start();
+            this.shutdownHook = new Thread(this::drainQuietly);
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        } else {
+            this.worker = null;
+            this.shutdownHook = null;
+        }
+    }
+
+    /**
+     * Records that a task was added to the end of the list.
+     *
+     * @param t the added task.
+     * @throws LebronException if an earlier flush failed, or if unable to persist the change right away.
+     */
+    public void recordAdd(Task t) throws LebronException {
+        enqueue(storage.isJournalled() ? storage.addRecord(t) : null);
+    }
+
+    /**
+     * Records that a task was inserted at the given 1-based index.
+     *
+     * @param idx the index the task ends up at.
+     * @param t the inserted task.
+     * @throws LebronException if an earlier flush failed, or if unable to persist the change right away.
+     */
+    public void recordInsert(int idx, Task t) throws LebronException {
+        enqueue(storage.isJournalled() ? storage.insertRecord(idx, t) : null);
+    }
+
+    /**
+     * Records that the task at the given 1-based index was marked as done.
+     *
+     * @param idx the index of the task.
+     * @throws LebronException if an earlier flush failed, or if unable to persist the change right away.
+     */
+    public void recordMark(int idx) throws LebronException {
+        enqueue(storage.markRecord(idx));
+    }
+
+    /**
+     * Records that the task at the given 1-based index was marked as not done.
+     *
+     * @param idx the index of the task.
+     * @throws LebronException if an earlier flush failed, or if unable to persist the change right away.
+     */
+    public void recordUnmark(int idx) throws LebronException {
+        enqueue(storage.unmarkRecord(idx));
+    }
+
+    /**
+     * Records that the task at the given 1-based index was deleted.
+     *
+     * @param idx the index of the task.
+     * @throws LebronException if an earlier flush failed, or if unable to persist the change right away.
+     */
+    public void recordDelete(int idx) throws LebronException {
+        enqueue(storage.deleteRecord(idx));
+    }
+
+    /**
+     * Holds back flushing: changes recorded from now on are only queued, until {@link #release()} is called.
+     */
+    public void hold() {
+        synchronized (lock) {
+            isHeld = true;
+        }
+    }
+
+    /**
+     * Stops holding back flushing and persists every change queued while held, in one flush.
+     *
+     * @throws LebronException if the flush failed.
+     */
+    public void release() throws LebronException {
+        synchronized (lock) {
+            isHeld = false;
+            if (isAsync && !isClosed) {
+                lock.notifyAll();
+                return;
+            }
+        }
+        flushNow();
+    }
+
+    /**
+     * Blocks until every change recorded so far has been persisted. Stops holding back flushing, if it was.
+     *
+     * @throws LebronException if a flush failed.
+     */
+    public void drain() throws LebronException {
+        release();
+        synchronized (lock) {
+            while (queued + inFlight > 0 && error == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new LebronException("Error - Interrupted while saving tasks.");
+                }
+            }
+            checkError();
+        }
+    }
+
+    /**
+     * Drains the queue, waits for the last compaction of the journal to finish, stops the background thread and
+     * removes the shutdown hook. Changes recorded afterwards are persisted right away.
+     *
+     * @throws LebronException if a flush or the compaction failed.
+     */
+    public void close() throws LebronException {
+        drain();
+        Future<?> compaction;
+        synchronized (lock) {
+            isClosed = true;
+            lock.notifyAll();
+            compaction = lastCompaction;
+        }
+        if (shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down, so the hook is running or about to, and only drains what is left
+            }
+        }
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LebronException("Error - Interrupted while saving tasks.");
+        } catch (ExecutionException e) {
+            throw new LebronException("Error - Failed to save tasks: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of changes recorded but not yet persisted.
+     *
+     * @return the number of unflushed changes.
+     */
+    public int getUnflushedCount() {
+        synchronized (lock) {
+            return queued + inFlight;
+        }
+    }
+
+    /**
+     * Returns how long the oldest unflushed change has been waiting to be persisted.
+     *
+     * @return the lag in milliseconds, or 0 if every change has been persisted.
+     */
+    public long getLagMillis() {
+        synchronized (lock) {
+            if (inFlight > 0) {
+                return (System.nanoTime() - oldestInFlightNanos) / 1_000_000;
+            }
+            return queued == 0 ? 0 : (System.nanoTime() - oldestQueuedNanos) / 1_000_000;
+        }
+    }
+
+    /**
+     * Queues a change. In journal mode the compaction copy is taken here, on the caller's thread, so that it
+     * reflects exactly the records queued before it.
+     */
+    private void enqueue(String record) throws LebronException {
+        synchronized (lock) {
+            checkError();
+            if (storage.isJournalled()) {
+                pending.add(new Pending(record, null));
+                if (++recordsSinceCompaction >= storage.getCompactEvery()) {
+                    pending.add(new Pending(null, taskList.snapshot()));
+                    recordsSinceCompaction = 0;
+                }
+            }
+            if (queued == 0) {
+                oldestQueuedNanos = System.nanoTime();
+            }
+            queued++;
+            if (isHeld) {
+                return;
+            }
+            if (isAsync && !isClosed) {
+                lock.notifyAll();
+                return;
+            }
+        }
+        flushNow();
+    }
+
+    private void runWorker() {
+        while (true) {
+            synchronized (lock) {
+                while ((queued == 0 || isHeld) && !isClosed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (isClosed && queued == 0) {
+                    return;
+                }
+            }
+            try {
+                flushNow();
+            } catch (LebronException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Persists everything queued so far in one go.
+     */
+    private void flushNow() throws LebronException {
+        synchronized (flushLock) {
+            List<Pending> batch;
+            synchronized (lock) {
+                if (queued == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                inFlight = queued;
+                oldestInFlightNanos = oldestQueuedNanos;
+                queued = 0;
+            }
+            try {
+                flush(batch);
+            } catch (LebronException e) {
+                if (isAsync) {
+                    // The batch is gone, so later journal records would no longer line up; stop persisting
+                    synchronized (lock) {
+                        error = e.getMessage();
+                    }
+                }
+                throw e;
+            } finally {
+                synchronized (lock) {
+                    inFlight = 0;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of queued changes: the journal records in as few appends as possible, or one snapshot.
+     */
+    private void flush(List<Pending> batch) throws LebronException {
+        if (storage.isJournalled()) {
+            List<String> records = new ArrayList<>();
+            for (Pending p : batch) {
+                if (p.record != null) {
+                    records.add(p.record);
+                    continue;
+                }
+                if (!records.isEmpty()) {
+                    storage.appendRecords(records);
+                    records = new ArrayList<>();
+                }
+                Future<?> compaction = storage.compactInBackground(p.compaction);
+                synchronized (lock) {
+                    lastCompaction = compaction;
+                }
+            }
+            if (!records.isEmpty()) {
+                storage.appendRecords(records);
+            }
+        } else {
+            storage.saveTasks(taskList.snapshot());
+        }
+    }
+
+    private void checkError() throws LebronException {
+        if (error != null) {
+            throw new LebronException("Error - Failed to save tasks: " + error);
+        }
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (LebronException e) {
+            // Nothing more can be done while the app is shutting down
+        }
+    }
+}
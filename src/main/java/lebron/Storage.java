@@ -1,37 +1,195 @@
 package lebron;
 
-import java.io.FileWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Ensures that tasks are saved and read properly by loading from and saving to a flat text file.
+ * Ensures that tasks are saved and read properly by loading from and saving to a flat text file,
+ * or to the compact binary format of {@link BinaryTaskCodec}. Either format is read regardless of which one
+ * the storage writes, so switching format migrates the save file on the next save.
+ * In journal mode, each change is appended to a {@link Journal} instead, and the journal is folded back
+ * into the save file in the background once it grows long enough.
+ * The save file is always replaced atomically, and writes are forced to the disk according to a {@link SyncPolicy}.
  */
 public class Storage {
+    /**
+     * The format the save file is written in.
+     */
+    public enum Format { TEXT, BINARY }
+
+    /**
+     * How a text save file is loaded. {@code MAPPED} maps the file into memory and only decodes a task when it is
+     * first read; the mapping stays open for the life of the list, which some platforms do not allow alongside
+     * replacing the file, so it is best suited to journal mode where the file is only rewritten on compaction.
+     * {@code PARALLEL} splits a large file into chunks of whole lines and parses them on the fork-join pool.
+     */
+    public enum LoadMode { EAGER, MAPPED, PARALLEL }
+
+    private static final String GENERATION_HEADER = "#gen ";
+    private static final String UNDO_SUFFIX = ".undo";
+    private static final String UNDO_HEADER = "#size ";
+    // Indexed by the kinds of change in UndoLog
+    private static final String[] UNDO_KINDS = {"ADD", "DELETE", "MARK", "MARK_DONE", "UNMARK", "UNMARK_UNDONE"};
+    private static final int DEFAULT_COMPACT_EVERY = 1000;
+    private static final String DEFAULT_SYNC = "1000";
+    private static final long DEFAULT_PARALLEL_THRESHOLD = 1 << 20;
+
     private final String filePath;
+    private final Format format;
+    private LoadMode loadMode = LoadMode.EAGER;
+    private long parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private final Journal journal;
+    private final int compactEvery;
+    private final ThreadPoolExecutor compactor;
+    private final SyncPolicy syncPolicy;
+    private final ScheduledExecutorService syncer;
+    private final AtomicBoolean isSyncPending = new AtomicBoolean();
+    private volatile boolean isSnapshotUnsynced;
+    private volatile String compactionError;
+    private int replayedCount;
+    // The end of each task's save file line after its status, which never changes. Held weakly, so that deleted
+    // tasks drop out.
+    private final Map<Task, String> lineEnds = Collections.synchronizedMap(new WeakHashMap<>());
 
     /**
      * Helps to store and read from the specified save file path by reformatting and interpreting
      * both the stored strings and the strings to be stored.
+     * Journal mode is switched on with the {@code lebron.journal} system property,
+     * and the sync policy is read from {@code lebron.fsync}.
+     * Files ending in {@code .bin} are written in the binary format, unless {@code lebron.format} says otherwise.
      *
      * @param filePath save file path.
      */
     public Storage(String filePath) {
+        this(filePath, Boolean.getBoolean("lebron.journal"),
+                Integer.getInteger("lebron.journal.compactEvery", DEFAULT_COMPACT_EVERY),
+                syncPolicyFromProperty(), formatFromProperty(filePath));
+        String load = System.getProperty("lebron.load", "eager").trim().toUpperCase();
+        this.loadMode = load.equals("MAPPED") ? LoadMode.MAPPED
+                : load.equals("PARALLEL") ? LoadMode.PARALLEL : LoadMode.EAGER;
+        this.parallelThreshold = Long.getLong("lebron.load.parallelThreshold", DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Creates a storage for the specified save file path, optionally in journal mode.
+     *
+     * @param filePath save file path.
+     * @param isJournalled whether changes are appended to a journal rather than rewriting the whole file.
+     * @param compactEvery number of journal records after which the journal is folded into the save file.
+     */
+    public Storage(String filePath, boolean isJournalled, int compactEvery) {
+        this(filePath, isJournalled, compactEvery, SyncPolicy.NEVER, Format.TEXT);
+    }
+
+    /**
+     * Creates a storage for the specified text save file path, optionally in journal mode.
+     *
+     * @param filePath save file path.
+     * @param isJournalled whether changes are appended to a journal rather than rewriting the whole file.
+     * @param compactEvery number of journal records after which the journal is folded into the save file.
+     * @param syncPolicy when writes are forced to the disk.
+     */
+    public Storage(String filePath, boolean isJournalled, int compactEvery, SyncPolicy syncPolicy) {
+        this(filePath, isJournalled, compactEvery, syncPolicy, Format.TEXT);
+    }
+
+    /**
+     * Creates a storage for the specified save file path, optionally in journal mode.
+     *
+     * @param filePath save file path.
+     * @param isJournalled whether changes are appended to a journal rather than rewriting the whole file.
+     * @param compactEvery number of journal records after which the journal is folded into the save file.
+     * @param syncPolicy when writes are forced to the disk.
+     * @param format the format the save file is written in.
+     */
+    public Storage(String filePath, boolean isJournalled, int compactEvery, SyncPolicy syncPolicy, Format format) {
+        assert compactEvery > 0 : "Compaction threshold must be positive";
         this.filePath = filePath;
+        this.format = format;
+        this.journal = isJournalled ? new Journal(Paths.get(filePath)) : null;
+        this.compactEvery = compactEvery;
+        this.syncPolicy = syncPolicy;
+        // A single, non-daemon worker so that a compaction in flight is never cut off when the app exits
+        this.compactor = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        // Deferred forces only matter if the machine goes down, so they need not hold the app open
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lebron-sync");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static SyncPolicy syncPolicyFromProperty() {
+        try {
+            return SyncPolicy.parse(System.getProperty("lebron.fsync", DEFAULT_SYNC));
+        } catch (LebronException e) {
+            return new SyncPolicy(SyncPolicy.Mode.PERIODIC, Long.parseLong(DEFAULT_SYNC));
+        }
+    }
+
+    private static Format formatFromProperty(String filePath) {
+        String setting = System.getProperty("lebron.format");
+        if (setting != null) {
+            return setting.trim().equalsIgnoreCase("binary") ? Format.BINARY : Format.TEXT;
+        }
+        return filePath.endsWith(".bin") ? Format.BINARY : Format.TEXT;
     }
 
     /**
-     * Loads tasks from the text file into memory.
+     * Sets how a text save file is loaded.
+     *
+     * @param loadMode the load mode.
+     */
+    public void setLoadMode(LoadMode loadMode) {
+        this.loadMode = loadMode;
+    }
+
+    /**
+     * Sets the file size below which the parallel load mode reads the file sequentially instead,
+     * as splitting a small file costs more than it saves.
+     *
+     * @param bytes the threshold in bytes.
+     */
+    public void setParallelThreshold(long bytes) {
+        this.parallelThreshold = bytes;
+    }
+
+    /**
+     * Loads tasks from the save file into memory, in whichever format the file is in.
      *
      * @return the list of tasks.
      * @throws LebronException if unable to load the save file
      */
-
     public List<Task> loadTasks() throws LebronException {
         List<Task> taskList = new ArrayList<>();
         Path p = Paths.get(filePath);
@@ -41,48 +199,620 @@ public class Storage {
             Files.createDirectories(p.getParent());
             if (!Files.exists(p)) {
                 Files.createFile(p);
-                return taskList;
             }
         } catch (IOException e) {
             throw new LebronException("Error - Cannot prepare save file: " + e.getMessage());
         }
 
-        try (Scanner scanner = new Scanner(p, java.nio.charset.StandardCharsets.UTF_8)) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
+        long baseGeneration = 0;
+        try {
+            if (BinaryTaskCodec.isBinary(p)) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(p)))) {
+                    baseGeneration = Math.max(0, BinaryTaskCodec.read(in, taskList));
+                }
+                replayJournal(taskList, baseGeneration);
+                return taskList;
+            }
+            if (loadMode == LoadMode.MAPPED && Files.size(p) < Integer.MAX_VALUE) {
+                return loadMapped(p);
+            }
+            long size = Files.size(p);
+            if (loadMode == LoadMode.PARALLEL && size >= parallelThreshold && size < Integer.MAX_VALUE) {
+                return loadParallel(p);
+            }
+        } catch (IOException e) {
+            throw new LebronException("Error - Failed to load tasks: " + e.getMessage());
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(p, java.nio.charset.StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(GENERATION_HEADER)) {
+                    baseGeneration = parseGeneration(line);
+                    continue;
+                }
                 Task t = parseTask(line);
                 if (t != null) {
                     taskList.add(t);
                 }
             }
-            return taskList;
         } catch (IOException e) {
             throw new LebronException("Error - Failed to load tasks: " + e.getMessage());
         }
+
+        replayJournal(taskList, baseGeneration);
+        return taskList;
+    }
+
+    /**
+     * Maps the text save file into memory and indexes its lines, leaving each task to be decoded on first read.
+     * A corrupt line is reported by whichever command first reads it.
+     */
+    private List<Task> loadMapped(Path p) throws IOException, LebronException {
+        MappedByteBuffer buffer;
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            buffer = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        MappedTaskList taskList = MappedTaskList.index(buffer, this::parseTask);
+
+        long baseGeneration = 0;
+        byte[] header = GENERATION_HEADER.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        int i = 0;
+        while (i < header.length && i < buffer.limit() && buffer.get(i) == header[i]) {
+            i++;
+        }
+        if (i == header.length) {
+            StringBuilder line = new StringBuilder(GENERATION_HEADER);
+            for (; i < buffer.limit() && buffer.get(i) != '\n'; i++) {
+                line.append((char) buffer.get(i));
+            }
+            baseGeneration = parseGeneration(line.toString());
+        }
+
+        replayJournal(taskList, baseGeneration);
+        return taskList;
+    }
+
+    /**
+     * Reads the whole text save file, splits it into chunks that end on line boundaries, parses the chunks
+     * on the fork-join pool and joins the results back up in file order.
+     */
+    private List<Task> loadParallel(Path p) throws IOException, LebronException {
+        byte[] bytes = Files.readAllBytes(p);
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * 4;
+        int chunkSize = Math.max(1, bytes.length / chunks);
+
+        List<Callable<List<Task>>> jobs = new ArrayList<>();
+        int start = 0;
+        while (start < bytes.length) {
+            int end = Math.min(bytes.length, start + chunkSize);
+            while (end < bytes.length && bytes[end - 1] != '\n') {
+                end++;
+            }
+            int from = start;
+            int to = end;
+            jobs.add(() -> parseChunk(bytes, from, to));
+            start = end;
+        }
+
+        List<Task> taskList = new ArrayList<>();
+        try {
+            for (Future<List<Task>> chunk : ForkJoinPool.commonPool().invokeAll(jobs)) {
+                taskList.addAll(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LebronException("Error - Interrupted while loading tasks.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LebronException) {
+                throw (LebronException) e.getCause();
+            }
+            throw new LebronException("Error - Failed to load tasks: " + e.getCause().getMessage());
+        }
+
+        long baseGeneration = 0;
+        int firstLineEnd = 0;
+        while (firstLineEnd < bytes.length && bytes[firstLineEnd] != '\n') {
+            firstLineEnd++;
+        }
+        String firstLine = new String(bytes, 0, firstLineEnd, java.nio.charset.StandardCharsets.UTF_8);
+        if (firstLine.startsWith(GENERATION_HEADER)) {
+            baseGeneration = parseGeneration(firstLine);
+        }
+
+        replayJournal(taskList, baseGeneration);
+        return taskList;
+    }
+
+    /**
+     * Parses the tasks on the lines between two byte offsets. The generation header is not a task and is skipped.
+     */
+    private List<Task> parseChunk(byte[] bytes, int from, int to) throws LebronException {
+        List<Task> tasks = new ArrayList<>();
+        int lineStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && bytes[i] != '\n') {
+                continue;
+            }
+            int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+            if (lineEnd > lineStart) {
+                String line = new String(bytes, lineStart, lineEnd - lineStart,
+                        java.nio.charset.StandardCharsets.UTF_8);
+                Task t = parseTask(line);
+                if (t != null) {
+                    tasks.add(t);
+                }
+            }
+            lineStart = i + 1;
+        }
+        return tasks;
     }
 
     /**
      * Writes all tasks to the text file.
+     * In journal mode this also folds every journal record written so far into the file.
      *
      * @param taskList the list of tasks to be written.
      * @throws LebronException if unable to write tasks.
      */
     public void saveTasks(List<Task> taskList) throws LebronException {
+        if (journal == null) {
+            writeSnapshot(taskList, -1);
+            return;
+        }
+        try {
+            compactInBackground(new ArrayList<>(taskList)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LebronException("Error - Interrupted while saving tasks.");
+        } catch (ExecutionException e) {
+            throw new LebronException("Error - Failed to save tasks: " + e.getCause().getMessage());
+        }
+        checkCompaction();
+    }
+
+    /**
+     * Returns the journal record for a task added to the end of the list.
+     *
+     * @param t the added task.
+     * @return the journal record.
+     * @throws LebronException if the task cannot be formatted.
+     */
+    public String addRecord(Task t) throws LebronException {
+        return "ADD | " + formatToWrite(t);
+    }
+
+    /**
+     * Returns the journal record for a task inserted at the given 1-based index.
+     *
+     * @param idx the index the task ends up at.
+     * @param t the inserted task.
+     * @return the journal record.
+     * @throws LebronException if the task cannot be formatted.
+     */
+    public String insertRecord(int idx, Task t) throws LebronException {
+        return "INSERT | " + idx + " | " + formatToWrite(t);
+    }
+
+    /**
+     * Returns the journal record for marking the task at the given 1-based index as done.
+     *
+     * @param idx the index of the task.
+     * @return the journal record.
+     */
+    public String markRecord(int idx) {
+        return "MARK | " + idx;
+    }
+
+    /**
+     * Returns the journal record for marking the task at the given 1-based index as not done.
+     *
+     * @param idx the index of the task.
+     * @return the journal record.
+     */
+    public String unmarkRecord(int idx) {
+        return "UNMARK | " + idx;
+    }
+
+    /**
+     * Returns the journal record for deleting the task at the given 1-based index.
+     *
+     * @param idx the index of the task.
+     * @return the journal record.
+     */
+    public String deleteRecord(int idx) {
+        return "DELETE | " + idx;
+    }
+
+    /**
+     * Returns whether changes are appended to a journal rather than rewriting the whole file.
+     *
+     * @return true in journal mode.
+     */
+    public boolean isJournalled() {
+        return journal != null;
+    }
+
+    public int getCompactEvery() {
+        return compactEvery;
+    }
+
+    /**
+     * Returns the number of journal records replayed when the tasks were last loaded, which are still waiting
+     * to be folded into the save file in journal mode.
+     *
+     * @return the number of records replayed.
+     */
+    public int getReplayedCount() {
+        return replayedCount;
+    }
+
+    /**
+     * Saves the undo log beside the save file, along with the number of tasks it was saved for.
+     * Only added and deleted tasks are written out; every other change is a kind and an index.
+     *
+     * @param log the undo log.
+     * @param taskCount the number of tasks in the list.
+     * @throws LebronException if unable to write the file.
+     */
+    public void saveUndoLog(UndoLog log, int taskCount) throws LebronException {
+        List<String> lines = new ArrayList<>();
+        lines.add(UNDO_HEADER + taskCount);
+        List<UndoLog.Entry> entries = log.entries();
+        for (int i = 0; i < entries.size(); i++) {
+            UndoLog.Entry e = entries.get(i);
+            String line = UNDO_KINDS[e.getKind()] + " | " + e.getIndex() + " | " + log.groupAt(i) + " | "
+                    + (i < log.getUndoableCount() ? "1" : "0");
+            if (e.getTask() != null) {
+                line += " | " + formatToWrite(e.getTask());
+            }
+            lines.add(line);
+        }
+        // Written beside the log and renamed over it, like the save file, so a crash never leaves half a log
+        Path p = Paths.get(filePath + UNDO_SUFFIX);
+        Path tmp = p.resolveSibling(p.getFileName() + ".tmp");
+        try {
+            Files.write(tmp, lines, java.nio.charset.StandardCharsets.UTF_8);
+            replace(tmp, p);
+        } catch (IOException e) {
+            throw new LebronException("Error - Failed to save undo history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the undo log saved beside the save file, and deletes the file so that it is never read twice.
+     * The log is only restored if it was saved for a list of the same size; a stale or damaged log is dropped,
+     * as is the rest of a log longer than the given capacity.
+     *
+     * @param taskCount the number of tasks in the loaded list.
+     * @param capacity the most changes the log keeps.
+     * @return the undo log, which is empty if none could be restored.
+     */
+    public UndoLog loadUndoLog(int taskCount, int capacity) {
+        UndoLog log = new UndoLog(capacity);
+        Path p = Paths.get(filePath + UNDO_SUFFIX);
+        if (!Files.exists(p)) {
+            return log;
+        }
+        try {
+            List<String> lines = Files.readAllLines(p, java.nio.charset.StandardCharsets.UTF_8);
+            Files.delete(p);
+            if (lines.isEmpty() || !lines.get(0).equals(UNDO_HEADER + taskCount)) {
+                return log;
+            }
+            UndoLog restored = new UndoLog(capacity);
+            for (String line : lines.subList(1, lines.size())) {
+                String[] parts = line.split(" \\| ", 5);
+                int kind = List.of(UNDO_KINDS).indexOf(parts[0]);
+                if (kind < 0) {
+                    return log;
+                }
+                Task t = parts.length == 5 ? parseTask(parts[4]) : null;
+                if (kind == UndoLog.ADD && t != null) {
+                    // An added task was always new, whatever was done to it later
+                    t.markUndone();
+                }
+                restored.restore((byte) kind, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), t,
+                        parts[3].equals("1"));
+            }
+            return restored;
+        } catch (IOException | LebronException | RuntimeException e) {
+            // Undo history is a convenience; losing it must never stop the tasks from loading
+            return log;
+        }
+    }
+
+    /**
+     * Appends a batch of journal records with a single flush, forcing them per the sync policy.
+     * Only valid in journal mode.
+     *
+     * @param records the journal records, oldest first.
+     * @throws LebronException if unable to persist the records.
+     */
+    public void appendRecords(List<String> records) throws LebronException {
+        assert journal != null : "Records can only be appended in journal mode";
+        checkCompaction();
+        try {
+            journal.appendAll(records);
+            if (syncPolicy.shouldSyncNow()) {
+                journal.force();
+            } else {
+                scheduleSync();
+            }
+        } catch (IOException e) {
+            throw new LebronException("Error - Failed to save tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Seals the current journal generation and folds it into the save file on the background worker.
+     * Every change recorded so far must be reflected in the given list, and the list must not change afterwards,
+     * so later changes only ever land in the new generation. Only valid in journal mode.
+     *
+     * @param snapshot a private copy of the tasks.
+     * @return the pending compaction.
+     * @throws LebronException if the journal cannot be rolled over.
+     */
+    public Future<?> compactInBackground(List<Task> snapshot) throws LebronException {
+        assert journal != null : "Only the journal can be compacted";
+        long generation;
+        try {
+            generation = journal.roll();
+        } catch (IOException e) {
+            throw new LebronException("Error - Failed to save tasks: " + e.getMessage());
+        }
+        return compactor.submit(() -> {
+            try {
+                writeSnapshot(snapshot, generation);
+                journal.deleteBefore(generation);
+            } catch (LebronException | IOException e) {
+                // The journal files are left in place, so nothing is lost; report on the next change
+                compactionError = e.getMessage();
+            }
+            return null;
+        });
+    }
+
+    private void checkCompaction() throws LebronException {
+        String error = compactionError;
+        if (error != null) {
+            compactionError = null;
+            throw new LebronException("Error - Failed to compact save file: " + error);
+        }
+    }
+
+    /**
+     * Writes every task to the save file, headed by the journal generation it folds in when non-negative.
+     * The tasks are written to a temporary file first, which then replaces the save file in a single rename,
+     * so a crash part-way through leaves the previous save file untouched.
+     */
+    private synchronized void writeSnapshot(List<Task> taskList, long generation) throws LebronException {
         Path p = Paths.get(filePath);
+        Path tmp = p.resolveSibling(p.getFileName() + ".tmp");
 
         try {
             Files.createDirectories(p.getParent());
-            try (FileWriter fw = new FileWriter(filePath, java.nio.charset.StandardCharsets.UTF_8)) {
-                for (Task task : taskList) {
-                    fw.write(formatToWrite(task));
-                    fw.write("\n");
+            boolean isForced = syncPolicy.shouldSyncNow();
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (format == Format.BINARY) {
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch)));
+                    BinaryTaskCodec.write(out, taskList, generation);
+                    out.flush();
+                } else {
+                    BufferedWriter fw = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(ch),
+                            java.nio.charset.StandardCharsets.UTF_8));
+                    if (generation >= 0) {
+                        fw.write(GENERATION_HEADER + generation + "\n");
+                    }
+                    // Lines that were mapped but never read can be copied out as they are
+                    MappedTaskList mapped = taskList instanceof MappedTaskList ? (MappedTaskList) taskList : null;
+                    for (int i = 0; i < taskList.size(); i++) {
+                        String raw = mapped != null ? mapped.rawLineAt(i) : null;
+                        fw.write(raw != null ? raw : formatToWrite(taskList.get(i)));
+                        fw.write("\n");
+                    }
+                    fw.flush();
+                }
+                if (isForced) {
+                    ch.force(true);
                 }
             }
+
+            replace(tmp, p);
+
+            if (isForced) {
+                forceDirectory(p);
+            } else {
+                isSnapshotUnsynced = true;
+                scheduleSync();
+            }
         } catch (IOException e) {
             throw new LebronException("Error - Failed to save tasks: " + e.getMessage());
         }
     }
 
+    /**
+     * Moves a fully written temporary file over the file it replaces in a single rename, where the platform
+     * allows, so that a reader sees either the old file or the new one.
+     */
+    private static void replace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Arranges for unforced writes to be forced once the sync interval has passed.
+     * Under the never policy nothing is scheduled, and at most one force is pending at a time.
+     */
+    private void scheduleSync() {
+        if (syncPolicy.getMode() != SyncPolicy.Mode.PERIODIC || !isSyncPending.compareAndSet(false, true)) {
+            return;
+        }
+        syncer.schedule(() -> {
+            isSyncPending.set(false);
+            try {
+                if (journal != null) {
+                    journal.force();
+                }
+                if (isSnapshotUnsynced) {
+                    isSnapshotUnsynced = false;
+                    Path p = Paths.get(filePath);
+                    try (FileChannel ch = FileChannel.open(p, StandardOpenOption.WRITE)) {
+                        ch.force(true);
+                    }
+                    forceDirectory(p);
+                }
+            } catch (IOException e) {
+                // The data is still with the operating system; the next write will try again
+            }
+        }, syncPolicy.getIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Forces the rename of the save file out to the disk, where the platform allows a directory to be opened.
+     */
+    private static void forceDirectory(Path p) {
+        Path dir = p.toAbsolutePath().getParent();
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            // Not every platform allows this; the rename itself is still atomic
+        }
+    }
+
+    /**
+     * Applies every journal record newer than the loaded snapshot, and then either reopens the journal for
+     * appending or, when not in journal mode, folds the replayed records straight back into the save file.
+     */
+    private void replayJournal(List<Task> taskList, long baseGeneration) throws LebronException {
+        Journal j = journal != null ? journal : new Journal(Paths.get(filePath));
+        long latest = baseGeneration;
+        int replayed = 0;
+        replayedCount = 0;
+
+        try {
+            j.deleteBefore(baseGeneration);
+            for (Path f : j.filesFrom(baseGeneration)) {
+                latest = Math.max(latest, j.generationOf(f));
+                byte[] bytes = Files.readAllBytes(f);
+                replayed = 0;
+                int goodEnd = 0;
+                int start = 0;
+                while (start < bytes.length) {
+                    int end = start;
+                    while (end < bytes.length && bytes[end] != '\n') {
+                        end++;
+                    }
+                    if (end == bytes.length) {
+                        // A record without its newline was cut short mid-append; the change never completed
+                        break;
+                    }
+                    int len = end > start && bytes[end - 1] == '\r' ? end - start - 1 : end - start;
+                    try {
+                        applyRecord(taskList, new String(bytes, start, len, java.nio.charset.StandardCharsets.UTF_8));
+                        replayed++;
+                        replayedCount++;
+                        goodEnd = end + 1;
+                    } catch (LebronException e) {
+                        if (end + 1 < bytes.length) {
+                            throw e;
+                        }
+                        // A torn final record means the app stopped mid-append; the change never completed
+                    }
+                    start = end + 1;
+                }
+                if (goodEnd < bytes.length) {
+                    // Cut the torn record off, so that the next record is not appended onto it
+                    try (FileChannel ch = FileChannel.open(f, StandardOpenOption.WRITE)) {
+                        ch.truncate(goodEnd);
+                    }
+                }
+            }
+
+            if (journal != null) {
+                journal.open(latest, replayed);
+            } else if (latest > baseGeneration || replayed > 0) {
+                writeSnapshot(taskList, latest + 1);
+                j.deleteBefore(latest + 1);
+            }
+        } catch (IOException e) {
+            throw new LebronException("Error - Failed to replay journal: " + e.getMessage());
+        } catch (MappedTaskList.CorruptLineException e) {
+            // The journal changed a line of a mapped file that turned out to be corrupt
+            throw new LebronException(e.getMessage());
+        }
+    }
+
+    /**
+     * Applies a single journal record to the list of tasks.
+     *
+     * @param taskList the list of tasks.
+     * @param record the journal record.
+     * @throws LebronException if the record is malformed or does not fit the list.
+     */
+    private void applyRecord(List<Task> taskList, String record) throws LebronException {
+        String[] parts = record.split(" \\| ", 2);
+        if (parts.length < 2) {
+            throw new LebronException("Error - Corrupt journal record: " + record);
+        }
+        if (parts[0].equals("ADD")) {
+            Task t = parseTask(parts[1]);
+            if (t == null) {
+                throw new LebronException("Error - Corrupt journal record: " + record);
+            }
+            taskList.add(t);
+            return;
+        }
+        if (parts[0].equals("INSERT")) {
+            String[] fields = parts[1].split(" \\| ", 2);
+            Task t = fields.length < 2 ? null : parseTask(fields[1]);
+            if (t == null) {
+                throw new LebronException("Error - Corrupt journal record: " + record);
+            }
+            int idx = parseRecordIndex(fields[0], record);
+            if (idx < 0 || idx > taskList.size()) {
+                throw new LebronException("Error - Journal record out of range: " + record);
+            }
+            taskList.add(idx, t);
+            return;
+        }
+
+        int idx = parseRecordIndex(parts[1], record);
+        if (idx < 0 || idx >= taskList.size()) {
+            throw new LebronException("Error - Journal record out of range: " + record);
+        }
+
+        switch (parts[0]) {
+        case "MARK" -> taskList.get(idx).markDone();
+        case "UNMARK" -> taskList.get(idx).markUndone();
+        case "DELETE" -> taskList.remove(idx);
+        default -> throw new LebronException("Error - Corrupt journal record: " + record);
+        }
+    }
+
+    /**
+     * Parses the 1-based index of a journal record into a 0-based one.
+     */
+    private static int parseRecordIndex(String s, String record) throws LebronException {
+        try {
+            return Integer.parseInt(s.trim()) - 1;
+        } catch (NumberFormatException e) {
+            throw new LebronException("Error - Corrupt journal record: " + record);
+        }
+    }
+
+    private long parseGeneration(String header) throws LebronException {
+        try {
+            return Long.parseLong(header.substring(GENERATION_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            throw new LebronException("Error - Corrupt save file header: " + header);
+        }
+    }
+
     /**
      * Parses a singular line in the save file into a singular Task instance.
      *
@@ -104,7 +834,8 @@ public class Storage {
         Task t = null;
         String type = parts[0].trim();
         boolean isDone = parts[1].trim().equals("1");
-        String desc = parts[2].trim();
+        // Repeated descriptions share one copy instead of each keeping its own
+        String desc = DescriptionPool.SHARED.intern(parts[2].trim());
 
         t = switch (type) {
         case "T" -> new Todo(desc);
@@ -119,6 +850,9 @@ public class Storage {
                 throw new LebronException("Error - Unable to save line (event missing times): " + s);
             }
             String[] fromTo = parts[3].trim().split("–", 2);
+            if (fromTo.length < 2) {
+                throw new LebronException("Error - Unable to save line (event missing times): " + s);
+            }
             yield new Event(desc, fromTo[0].trim(), fromTo[1].trim());
         }
         default -> throw new LebronException("Unknown task type: " + type);
@@ -132,26 +866,33 @@ public class Storage {
 
     /**
      * Formats a single task into a single-line representation for the save file.
+     * The part of the line after the status is cached, so an unchanged task is only formatted once however often it
+     * is saved, and marking it cannot leave a stale line behind.
      *
      * @param t the ask.
      * @return the single-line representation to be written into the save file.
      */
     private String formatToWrite(Task t) throws LebronException {
-        String taskType;
+        String end = lineEnds.get(t);
+        if (end == null) {
+            end = formatAfterStatus(t);
+            lineEnds.put(t, end);
+        }
+        String taskType = t instanceof Deadline ? "D" : t instanceof Event ? "E" : "T";
         String status = t.getIsDone() ? "1" : "0";
+        return taskType + " | " + status + end;
+    }
 
+    private static String formatAfterStatus(Task t) throws LebronException {
         if (t instanceof Todo) {
-            taskType = "T";
-            return taskType + " | " + status + " | " + t.getDescription();
+            return " | " + t.getDescription();
         } else if (t instanceof Deadline) {
-            taskType = "D";
             String by = ((Deadline) t).getOriginalBy();
-            return taskType + " | " + status + " | " + t.getDescription() + " | " + by;
+            return " | " + t.getDescription() + " | " + by;
         } else if (t instanceof Event) {
-            taskType = "E";
             String from = ((Event) t).getOriginalFrom();
             String to = ((Event) t).getOriginalTo();
-            return taskType + " | " + status + " | " + t.getDescription() + " | " + from + " – " + to;
+            return " | " + t.getDescription() + " | " + from + " – " + to;
         } else {
             // else block should be unreachable because there are only 3 types of tasks
             throw new LebronException("Unknown task type: " + t.getClass());
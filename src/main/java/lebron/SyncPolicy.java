@@ -0,0 +1,90 @@
+package lebron;
+
+/**
+ * Decides when writes to the save file and journal are forced out to the disk.
+ * Forcing after every write is the most durable but also the slowest; the periodic policy forces at most
+ * once per interval, so a burst of commands costs a single force.
+ */
+public class SyncPolicy {
+    /**
+     * How often writes are forced to the disk.
+     */
+    public enum Mode { ALWAYS, PERIODIC, NEVER }
+
+    public static final SyncPolicy NEVER = new SyncPolicy(Mode.NEVER, 0);
+    public static final SyncPolicy ALWAYS = new SyncPolicy(Mode.ALWAYS, 0);
+
+    private final Mode mode;
+    private final long intervalMillis;
+    private long lastSync;
+
+    /**
+     * Creates a sync policy.
+     *
+     * @param mode how often writes are forced.
+     * @param intervalMillis minimum time between forces in periodic mode.
+     */
+    public SyncPolicy(Mode mode, long intervalMillis) {
+        assert mode != Mode.PERIODIC || intervalMillis > 0 : "Periodic sync needs a positive interval";
+        this.mode = mode;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Parses a policy from its setting: {@code always}, {@code never}, or an interval in milliseconds.
+     *
+     * @param spec the setting.
+     * @return the policy.
+     * @throws LebronException if the setting is not understood.
+     */
+    public static SyncPolicy parse(String spec) throws LebronException {
+        String s = spec.trim().toLowerCase();
+        switch (s) {
+        case "always":
+            return ALWAYS;
+        case "never":
+            return NEVER;
+        default:
+            try {
+                long interval = Long.parseLong(s);
+                if (interval <= 0) {
+                    return ALWAYS;
+                }
+                return new SyncPolicy(Mode.PERIODIC, interval);
+            } catch (NumberFormatException e) {
+                throw new LebronException("Error - Unknown sync policy: " + spec);
+            }
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Returns whether a write made now must be forced before it returns.
+     * In periodic mode, a write that is not forced now must be forced later by the caller.
+     *
+     * @return true if the write must be forced now.
+     */
+    public synchronized boolean shouldSyncNow() {
+        switch (mode) {
+        case ALWAYS:
+            return true;
+        case PERIODIC: {
+            long now = System.currentTimeMillis();
+            if (now - lastSync >= intervalMillis) {
+                lastSync = now;
+                return true;
+            }
+            return false;
+        }
+        default:
+            return false;
+        }
+    }
+}
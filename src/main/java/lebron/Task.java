@@ -3,10 +3,14 @@ package lebron;
 /**
  * Generic Task with a description and a done/undone state.
  * Its subclasses all make of this class's core features.
+ * The display string of a task is built once and reused until it is marked or unmarked, which is the only way a
+ * task changes. Building, marking and unmarking hold the task's lock, so a string built for one state is never
+ * cached after the task has moved to the other.
  */
 public class Task {
     protected final String description;
     protected boolean isDone;
+    private String display;
 
     /**
      * Creates an instance of a basic task with a description and a done/not done indicator
@@ -48,24 +52,40 @@ public class Task {
     /**
      * Marks this task as done.
      */
-    public void markDone() {
+    public synchronized void markDone() {
         this.isDone = true;
+        display = null;
     }
 
     /**
      * Marks this task as not done.
      */
-    public void markUndone() {
+    public synchronized void markUndone() {
         this.isDone = false;
+        display = null;
     }
 
     /**
-     * Returns a human-readable string for display.
+     * Returns a human-readable string for display, built on first use.
      *
      * @return Human-readable string.
      */
     @Override
-    public String toString() {
-        return String.format("[%s] %s", this.getStatusIcon(), this.getDescription());
+    public synchronized String toString() {
+        String s = display;
+        if (s == null) {
+            s = render();
+            display = s;
+        }
+        return s;
+    }
+
+    /**
+     * Builds the human-readable string for display. Subclasses add their type and dates to it.
+     *
+     * @return Human-readable string.
+     */
+    protected String render() {
+        return "[" + this.getStatusIcon() + "] " + this.getDescription();
     }
 }
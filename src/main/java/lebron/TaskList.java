@@ -1,14 +1,110 @@
 package lebron;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 /**
  * Container for a list of tasks.
  * Provides operations to edit the list, such as: add, mark, unmark and delete.
+ * The list is safe to use from several threads. Edits take an exclusive lock and reads a shared one, except for
+ * the size, which is read optimistically and only falls back to the shared lock if an edit ran meanwhile. Code
+ * that walks the whole list should iterate a {@link #snapshot()}, which is copied once per version of the list
+ * and shared until the next edit.
+ * Searches are answered from indexes that are built on first use and then kept up to date by every edit.
  */
 public class TaskList {
+    /**
+     * The kind of list that holds the tasks.
+     */
+    public enum Backing {
+        /** An array, which is compact and fastest to read through in order. */
+        ARRAY,
+        /** An order-statistic tree, which edits the task at any index in logarithmic time. */
+        TREE,
+        /** Columns of primitives and an off-heap arena of descriptions, which takes a fraction of the heap. */
+        COLUMNAR
+    }
+
+    /**
+     * A run of tasks copied out of the list, together with the size of the list when it was copied.
+     */
+    public static final class Page {
+        private final List<Task> tasks;
+        private final int first;
+        private final int start;
+        private final int end;
+        private final int size;
+
+        /**
+         * Creates a page of the tasks from {@code start} to {@code end}, of which the first is held at index
+         * {@code first} of {@code tasks}.
+         */
+        private Page(List<Task> tasks, int first, int start, int end, int size) {
+            this.tasks = tasks;
+            this.first = first;
+            this.start = start;
+            this.end = end;
+            this.size = size;
+        }
+
+        /**
+         * Returns the 0-based index of the first task on the page.
+         *
+         * @return the index of the first task.
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * Returns the 0-based index just past the last task on the page.
+         *
+         * @return the index after the last task.
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * Returns the number of tasks in the whole list when the page was copied.
+         *
+         * @return the size of the list.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Appends the display string of a task on the page. A columnar list formats it straight from its columns,
+         * rather than decoding a task only to print it.
+         *
+         * @param idx the 0-based index of the task in the list, from {@link #getStart()} to before {@link #getEnd()}.
+         * @param sb where to append the string.
+         */
+        public void appendTask(int idx, StringBuilder sb) {
+            if (tasks instanceof ColumnarTaskList) {
+                ((ColumnarTaskList) tasks).appendDisplay(first + idx - start, sb);
+            } else {
+                sb.append(tasks.get(first + idx - start).toString());
+            }
+        }
+    }
+
     private final List<Task> tasks;
+    private final StampedLock lock = new StampedLock();
+    private volatile List<Task> snapshot;
+    private DescriptionIndex descriptionIndex;
+    private DateIndex dateIndex;
+    // Position keys of the indexed tasks in list order, which put what an index finds back in list order
+    private final Map<Task, Double> order = new IdentityHashMap<>();
+    private double nextOrder;
 
     /**
      * Creates a task list instance with an empty array list if no list of tasks is specified.
@@ -23,7 +119,24 @@ public class TaskList {
      * @param tasks list of tasks.
      */
     public TaskList(List<Task> tasks) {
-        this.tasks = new ArrayList<>(tasks);
+        this(tasks, Backing.ARRAY);
+    }
+
+    /**
+     * Creates a task list instance with the specified list of tasks, held in the given kind of list.
+     *
+     * @param tasks list of tasks.
+     * @param backing the kind of list to hold the tasks in.
+     */
+    public TaskList(List<Task> tasks, Backing backing) {
+        if (backing == Backing.TREE) {
+            this.tasks = new TreeTaskList(tasks);
+        } else if (backing == Backing.COLUMNAR) {
+            this.tasks = new ColumnarTaskList(tasks);
+        } else {
+            // A mapped list is adopted as it is, so that its tasks stay undecoded until they are read
+            this.tasks = tasks instanceof MappedTaskList ? tasks : new ArrayList<>(tasks);
+        }
     }
 
     /**
@@ -32,17 +145,25 @@ public class TaskList {
      * @return the number of tasks.
      */
     public int size() {
-        return tasks.size();
+        // The size is a single field of the backing list, so an optimistic read cannot see it half-way changed
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            int size = tasks.size();
+            if (lock.validate(stamp)) {
+                return size;
+            }
+        }
+        return read(tasks::size);
     }
 
     /**
-     * Returns the task at the given 1-based index.
+     * Returns the task at the given 0-based index.
      *
      * @param idx the index of the task.
      * @return the task.
      */
     public Task get(int idx) {
-        return tasks.get(idx);
+        return read(() -> tasks.get(idx));
     }
 
     /**
@@ -52,9 +173,111 @@ public class TaskList {
      */
     public void add(Task t) {
         assert t != null : "Task cannot be null";
-        int before = tasks.size();
-        tasks.add(t);
-        assert tasks.size() == before + 1: "Tasks must increase by 1";
+        long stamp = lock.writeLock();
+        try {
+            int before = tasks.size();
+            tasks.add(t);
+            assert tasks.size() == before + 1: "Tasks must increase by 1";
+            snapshot = null;
+            if (isIndexed(t)) {
+                order.put(t, nextOrder++);
+            }
+            if (descriptionIndex != null) {
+                descriptionIndex.add(t);
+            }
+            if (dateIndex != null) {
+                dateIndex.add(t);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Inserts a task at the given 1-based index, moving the task there and every one after it down by one.
+     *
+     * @param idx the index the task ends up at, from 1 to one past the last task.
+     * @param t the task.
+     * @throws LebronException if indexing error occurs.
+     */
+    public void insert(int idx, Task t) throws LebronException {
+        assert t != null : "Task cannot be null";
+        --idx;
+        long stamp = lock.writeLock();
+        try {
+            if (idx < 0 || idx > tasks.size()) {
+                throw new LebronException("Error - index out of range.");
+            }
+            tasks.add(idx, t);
+            snapshot = null;
+            if (isIndexed(t)) {
+                orderInserted(idx, t);
+            }
+            if (descriptionIndex != null) {
+                descriptionIndex.add(t);
+            }
+            if (dateIndex != null) {
+                dateIndex.add(t);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Keys an inserted task between the nearest indexed tasks on either side of it, rekeying every indexed task if
+     * no key is left between them.
+     */
+    private void orderInserted(int idx, Task t) {
+        int previous = idx - 1;
+        while (previous >= 0 && !isIndexedAt(previous)) {
+            previous--;
+        }
+        int next = idx + 1;
+        while (next < tasks.size() && !isIndexedAt(next)) {
+            next++;
+        }
+        if (next == tasks.size()) {
+            order.put(t, nextOrder++);
+            return;
+        }
+        double after = order.get(tasks.get(next));
+        double before = previous < 0 ? after - 1 : order.get(tasks.get(previous));
+        double key = before + (after - before) / 2;
+        if (key > before && key < after) {
+            order.put(t, key);
+            return;
+        }
+        reorder();
+    }
+
+    /**
+     * Keys every indexed task by its position. Tasks added later are keyed after all the others, and deletions
+     * leave the order of the rest unchanged.
+     */
+    private void reorder() {
+        order.clear();
+        nextOrder = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (isIndexedAt(i)) {
+                order.put(tasks.get(i), nextOrder++);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a task is held by one of the indexes that have been built, and so needs a position key.
+     */
+    private boolean isIndexed(Task t) {
+        return descriptionIndex != null || dateIndex != null && (t instanceof Deadline || t instanceof Event);
+    }
+
+    /**
+     * Returns whether the task at the given 0-based index is held by an index, without decoding it unless every
+     * task is indexed.
+     */
+    private boolean isIndexedAt(int idx) {
+        return descriptionIndex != null || dateIndex != null && isDatedAt(idx);
     }
 
     /**
@@ -66,14 +289,27 @@ public class TaskList {
      */
     public Task delete(int idx) throws LebronException {
         --idx;
-        if (idx < 0 || idx >= tasks.size()) {
-            throw new LebronException("Error - index out of range.");
-        }
+        long stamp = lock.writeLock();
+        try {
+            if (idx < 0 || idx >= tasks.size()) {
+                throw new LebronException("Error - index out of range.");
+            }
 
-        int before = tasks.size();
-        Task removed = tasks.remove(idx);
-        assert tasks.size() == before - 1: "Tasks must decrease by 1";
-        return removed;
+            int before = tasks.size();
+            Task removed = tasks.remove(idx);
+            assert tasks.size() == before - 1: "Tasks must decrease by 1";
+            snapshot = null;
+            order.remove(removed);
+            if (descriptionIndex != null) {
+                descriptionIndex.remove(removed);
+            }
+            if (dateIndex != null) {
+                dateIndex.remove(removed);
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -85,13 +321,21 @@ public class TaskList {
      */
     public Task mark(int idx) throws LebronException {
         --idx;
-        if (idx < 0 || idx >= tasks.size()) {
-            throw new LebronException("Error - index out of range.");
+        long stamp = lock.writeLock();
+        try {
+            if (idx < 0 || idx >= tasks.size()) {
+                throw new LebronException("Error - index out of range.");
+            }
+            Task t = tasks.get(idx);
+            t.markDone();
+            // A columnar list hands out copies of its tasks, so the change only sticks once written back
+            tasks.set(idx, t);
+            assert t.isDone : "Task should be done after mark";
+            snapshot = null;
+            return t;
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        Task t = tasks.get(idx);
-        t.markDone();
-        assert t.isDone : "Task should be done after mark";
-        return t;
     }
 
     /**
@@ -103,21 +347,236 @@ public class TaskList {
      */
     public Task unmark(int idx) throws LebronException {
         --idx;
-        if (idx < 0 || idx >= tasks.size()) {
-            throw new LebronException("Error - index out of range.");
+        long stamp = lock.writeLock();
+        try {
+            if (idx < 0 || idx >= tasks.size()) {
+                throw new LebronException("Error - index out of range.");
+            }
+            Task t = tasks.get(idx);
+            t.markUndone();
+            // A columnar list hands out copies of its tasks, so the change only sticks once written back
+            tasks.set(idx, t);
+            assert !t.isDone : "Task should be undone after unmark";
+            snapshot = null;
+            return t;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the tasks whose descriptions contain every one of the keywords, ignoring case, in list order.
+     *
+     * @param keywords the keywords.
+     * @return the matching tasks.
+     */
+    public List<Task> find(List<String> keywords) {
+        List<String> lowered = new ArrayList<>();
+        for (String keyword : keywords) {
+            lowered.add(keyword.toLowerCase());
+        }
+
+        if (tasks instanceof ColumnarTaskList) {
+            // Indexes would hold on to every task, which is what a columnar list avoids, so it is always scanned
+            return ((ColumnarTaskList) snapshot()).find(lowered);
+        }
+        long stamp = lock.readLock();
+        try {
+            if (descriptionIndex == null) {
+                stamp = buildDescriptionIndex(stamp);
+            }
+            // Keywords shorter than a trigram cannot be looked up, so those searches fall back to a scan
+            Collection<Task> candidates = descriptionIndex.candidates(lowered);
+            if (candidates != null) {
+                List<Task> matches = matching(candidates, lowered);
+                matches.sort(Comparator.comparingDouble(order::get));
+                return matches;
+            }
+        } finally {
+            lock.unlock(stamp);
+        }
+        return matching(snapshot(), lowered);
+    }
+
+    /**
+     * Returns the deadlines due and the events taking place on any day of the given range, in list order.
+     *
+     * @param from the first day of the range.
+     * @param to the last day of the range.
+     * @return the tasks in the range.
+     */
+    public List<Task> between(LocalDate from, LocalDate to) {
+        long stamp = lock.readLock();
+        try {
+            if (tasks instanceof ColumnarTaskList) {
+                return ((ColumnarTaskList) tasks).between(from.toEpochDay(), to.toEpochDay());
+            }
+            if (dateIndex == null) {
+                stamp = buildDateIndex(stamp);
+            }
+            List<Task> matches = dateIndex.between(from.toEpochDay(), to.toEpochDay());
+            matches.sort(Comparator.comparingDouble(order::get));
+            return matches;
+        } finally {
+            lock.unlock(stamp);
+        }
+    }
+
+    private static List<Task> matching(Collection<Task> tasks, List<String> lowered) {
+        List<Task> matches = new ArrayList<>();
+        for (Task t : tasks) {
+            String desc = t.getDescription().toLowerCase();
+            if (lowered.stream().allMatch(desc::contains)) {
+                matches.add(t);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Trades the given read lock for the write lock and indexes every task by the trigrams of its description.
+     *
+     * @return the stamp of the write lock, which the caller must release.
+     */
+    private long buildDescriptionIndex(long readStamp) {
+        long stamp = toWriteLock(readStamp);
+        if (descriptionIndex == null) {
+            DescriptionIndex index = new DescriptionIndex();
+            for (Task t : tasks) {
+                index.add(t);
+            }
+            descriptionIndex = index;
+            reorder();
+        }
+        return stamp;
+    }
+
+    /**
+     * Trades the given read lock for the write lock and indexes the deadlines and events. Only those tasks are
+     * read, so the todos of a mapped list stay undecoded.
+     *
+     * @return the stamp of the write lock, which the caller must release.
+     */
+    private long buildDateIndex(long readStamp) {
+        long stamp = toWriteLock(readStamp);
+        if (dateIndex == null) {
+            DateIndex index = new DateIndex();
+            for (int i = 0; i < tasks.size(); i++) {
+                if (isDatedAt(i)) {
+                    index.add(tasks.get(i));
+                }
+            }
+            dateIndex = index;
+            if (descriptionIndex == null) {
+                reorder();
+            }
+        }
+        return stamp;
+    }
+
+    private long toWriteLock(long readStamp) {
+        long stamp = lock.tryConvertToWriteLock(readStamp);
+        if (stamp == 0) {
+            lock.unlockRead(readStamp);
+            stamp = lock.writeLock();
+        }
+        return stamp;
+    }
+
+    /**
+     * Returns a read-only copy of the list of all the tasks, taken while no edit is in progress.
+     * The copy is shared by every caller until the list is next edited.
+     *
+     * @return the copy of the list.
+     */
+    public List<Task> snapshot() {
+        List<Task> copy = snapshot;
+        if (copy != null) {
+            return copy;
+        }
+        long stamp = lock.readLock();
+        try {
+            // A mapped copy keeps undecoded lines, which a save can write back out without decoding them. It is
+            // read-only itself, as wrapping it would hide those lines from the save.
+            if (tasks instanceof MappedTaskList) {
+                copy = ((MappedTaskList) tasks).copy();
+            } else if (tasks instanceof ColumnarTaskList) {
+                // Shares each chunk of the columns until an edit changes it, rather than decoding every task into the
+                // copy. Like the mapped copy it is read-only itself, so listing and searching can read its columns.
+                copy = ((ColumnarTaskList) tasks).copy();
+            } else {
+                copy = List.copyOf(tasks);
+            }
+            snapshot = copy;
+            return copy;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns a page of the list: a read-only copy of a run of tasks and the size of the list, both taken while no
+     * edit is in progress. Only the tasks on the page are copied, unless the list has a snapshot to share.
+     *
+     * @param offset the number of tasks to skip.
+     * @param limit the most tasks on the page, or -1 for every task after the offset.
+     * @return the page, which is cut short at the end of the list.
+     */
+    public Page page(int offset, int limit) {
+        List<Task> copy = snapshot;
+        if (copy == null && (offset == 0 && limit < 0 || tasks instanceof ColumnarTaskList)) {
+            // The whole list is copied anyway, and a columnar copy shares the columns instead of copying them
+            copy = snapshot();
+        }
+        if (copy != null) {
+            int size = copy.size();
+            int start = Math.min(offset, size);
+            int end = limit < 0 ? size : (int) Math.min((long) start + limit, size);
+            return new Page(copy, start, start, end, size);
+        }
+        long stamp = lock.readLock();
+        try {
+            int size = tasks.size();
+            int start = Math.min(offset, size);
+            int end = limit < 0 ? size : (int) Math.min((long) start + limit, size);
+            return new Page(List.copyOf(tasks.subList(start, end)), 0, start, end, size);
+        } finally {
+            lock.unlockRead(stamp);
         }
-        Task t = tasks.get(idx);
-        t.markUndone();
-        assert !t.isDone : "Task should be undone after unmark";
-        return t;
     }
 
     /**
-     * Returns the backing list of all the tasks.
+     * Returns whether the task at the given 0-based index is a deadline or an event,
+     * without decoding it if it has not been read yet.
      *
-     * @return the list of all the tasks.
+     * @param idx the index of the task.
+     * @return true if the task has a date.
      */
-    public List<Task> all() {
-        return tasks;
+    public boolean isDated(int idx) {
+        return read(() -> isDatedAt(idx));
+    }
+
+    private boolean isDatedAt(int idx) {
+        if (tasks instanceof MappedTaskList) {
+            return ((MappedTaskList) tasks).typeAt(idx) != 'T';
+        }
+        if (tasks instanceof ColumnarTaskList) {
+            return ((ColumnarTaskList) tasks).typeAt(idx) != 'T';
+        }
+        Task t = tasks.get(idx);
+        return t instanceof Deadline || t instanceof Event;
+    }
+
+    /**
+     * Reads the list under the shared lock. Walking or decoding the backing list while an edit runs could fail in
+     * any number of ways, so only {@link #size()} reads without it.
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 }
@@ -0,0 +1,62 @@
+package lebron;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Runs Lebron in the terminal instead of the GUI: commands are read from standard input, one per line, and each
+ * reply is written to standard output. Nothing here loads JavaFX, so it starts quickly and runs headless.
+ * Output is buffered and only flushed when Lebron is about to wait for more input, so piped scripts of any length
+ * run at full speed, and replies to list are written out as they are produced. Usage: {@code TextLauncher [save file]}.
+ */
+public class TextLauncher {
+    private TextLauncher() {
+    }
+
+    /**
+     * Runs Lebron until the user says bye or the input ends.
+     *
+     * @param args the save file to use, or nothing for the default one.
+     */
+    public static void main(String[] args) {
+        Lebron lebron = new Lebron(args.length > 0 ? args[0] : Lebron.DEFAULT_SAVE_PATH);
+        Ui ui = new Ui();
+        PrintWriter out = new PrintWriter(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+
+        out.println(lebron.run("hi"));
+        String command;
+        while ((command = ui.readCommand()) != null) {
+            try {
+                lebron.run(command, out);
+            } catch (IOException e) {
+                // A PrintWriter never throws; it only sets its error flag
+            }
+            out.println();
+            if (isBye(command)) {
+                break;
+            }
+            if (!ui.hasPendingInput()) {
+                out.flush();
+            }
+        }
+        try {
+            // Bye has already closed Lebron, but the input may have ended without one
+            lebron.close();
+        } catch (LebronException e) {
+            out.println(e.getMessage());
+        }
+        out.flush();
+    }
+
+    private static boolean isBye(String command) {
+        try {
+            return Parser.parse(command).getType() == Parser.CommandType.BYE;
+        } catch (LebronException e) {
+            return false;
+        }
+    }
+}
@@ -15,12 +15,12 @@ public class Todo extends Task {
     }
 
     /**
-     * Returns a human-readable string for display.
+     * Builds the human-readable string for display.
      *
      * @return Human-readable string.
      */
     @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    protected String render() {
+        return "[T]" + super.render();
     }
 }
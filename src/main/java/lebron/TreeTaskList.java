@@ -0,0 +1,219 @@
+package lebron;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * List of tasks held in an order-statistic tree, so that reading, replacing, inserting or removing the task at any
+ * index takes logarithmic time instead of shifting the rest of an array.
+ * The tree is a treap keyed implicitly by position: every node records the size of its subtree, which is enough
+ * to find the node at a given index on the way down.
+ */
+public class TreeTaskList extends AbstractList<Task> {
+    private final Random random = new Random();
+    private Node root;
+
+    /**
+     * A node of the tree, holding one task.
+     */
+    private static final class Node {
+        private Task task;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(Task task, int priority) {
+            this.task = task;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Creates an empty list.
+     */
+    public TreeTaskList() {
+    }
+
+    /**
+     * Creates a list holding the given tasks, in the same order.
+     *
+     * @param tasks the tasks.
+     */
+    public TreeTaskList(List<Task> tasks) {
+        // Builds the treap in one pass: the right spine is kept on a stack, as for a Cartesian tree
+        Deque<Node> spine = new ArrayDeque<>();
+        for (Task t : tasks) {
+            Node n = new Node(t, random.nextInt());
+            Node last = null;
+            while (!spine.isEmpty() && spine.peek().priority < n.priority) {
+                last = spine.pop();
+                update(last);
+            }
+            n.left = last;
+            if (!spine.isEmpty()) {
+                spine.peek().right = n;
+            }
+            spine.push(n);
+        }
+        while (!spine.isEmpty()) {
+            root = spine.pop();
+            update(root);
+        }
+    }
+
+    @Override
+    public Task get(int idx) {
+        return nodeAt(idx).task;
+    }
+
+    @Override
+    public Task set(int idx, Task t) {
+        Node n = nodeAt(idx);
+        Task old = n.task;
+        n.task = t;
+        return old;
+    }
+
+    @Override
+    public void add(int idx, Task t) {
+        if (idx < 0 || idx > size()) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size());
+        }
+        Node[] parts = split(root, idx);
+        root = merge(merge(parts[0], new Node(t, random.nextInt())), parts[1]);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int idx) {
+        checkIndex(idx);
+        Node[] parts = split(root, idx);
+        Node[] rest = split(parts[1], 1);
+        root = merge(parts[0], rest[1]);
+        modCount++;
+        return rest[0].task;
+    }
+
+    @Override
+    public int size() {
+        return sizeOf(root);
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private final Deque<Node> path = new ArrayDeque<>();
+            private final int expectedModCount = modCount;
+
+            {
+                pushLeft(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node n = path.pop();
+                pushLeft(n.right);
+                return n.task;
+            }
+
+            private void pushLeft(Node n) {
+                for (; n != null; n = n.left) {
+                    path.push(n);
+                }
+            }
+        };
+    }
+
+    private Node nodeAt(int idx) {
+        checkIndex(idx);
+        Node n = root;
+        while (true) {
+            int leftSize = sizeOf(n.left);
+            if (idx < leftSize) {
+                n = n.left;
+            } else if (idx == leftSize) {
+                return n;
+            } else {
+                idx -= leftSize + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    /**
+     * Splits a subtree into its first {@code count} nodes and the rest.
+     */
+    private static Node[] split(Node n, int count) {
+        if (n == null) {
+            return new Node[] {null, null};
+        }
+        int leftSize = sizeOf(n.left);
+        if (count <= leftSize) {
+            Node[] parts = split(n.left, count);
+            n.left = parts[1];
+            update(n);
+            parts[1] = n;
+            return parts;
+        }
+        Node[] parts = split(n.right, count - leftSize - 1);
+        n.right = parts[0];
+        update(n);
+        parts[0] = n;
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node n) {
+        n.size = 1 + sizeOf(n.left) + sizeOf(n.right);
+    }
+
+    private static int sizeOf(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private void checkIndex(int idx) {
+        if (idx < 0 || idx >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size());
+        }
+    }
+}
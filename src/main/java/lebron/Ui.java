@@ -1,17 +1,18 @@
 package lebron;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
 
 /**
  * Class that is responsible for all user interaction - reading commands and writing formatted output.
  */
 public class Ui {
-    private final Scanner sc = new Scanner(System.in);
+    private BufferedReader in;
 
     /**
      * Prints greeting banner when Lebron starts.
@@ -42,29 +43,50 @@ public class Ui {
      * @return the trimmed line (if any).
      */
     public String readCommand() {
-        if (!sc.hasNextLine()) {
+        try {
+            String line = input().readLine();
+            return line == null ? null : line.trim();
+        } catch (IOException e) {
             return null;
         }
-        return sc.nextLine().trim();
+    }
+
+    /**
+     * Returns whether a command can be read without waiting for the user.
+     *
+     * @return true if input is already available.
+     */
+    public boolean hasPendingInput() {
+        try {
+            return input().ready();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private BufferedReader input() {
+        // Opened on first use, so that the GUI never touches standard input
+        if (in == null) {
+            in = new BufferedReader(new InputStreamReader(System.in), 1 << 16);
+        }
+        return in;
     }
 
     /**
      * Identifies matches in substring between tasks in tasklist and the keyword.
+     * Several keywords separated by a standalone /and must all be matched.
      * Prints all the matches, if any
      *
      * @param taskList list of tasks
      * @param keyword substring to search for
      */
     public String handleFind(TaskList taskList, String keyword) {
-        keyword = keyword.trim().toLowerCase();
-        List<Task> matches = new ArrayList<>();
-
-        for (int i = 0; i < taskList.size(); i++) {
-            String desc = taskList.get(i).getDescription();
-            if (desc.toLowerCase().contains(keyword)) {
-                matches.add(taskList.get(i));
-            }
+        // Only /and as a word of its own separates keywords, so a keyword that merely contains it is unchanged
+        List<String> keywords = new ArrayList<>();
+        for (String k : keyword.trim().split("\\s+/and\\s+")) {
+            keywords.add(k.trim());
         }
+        List<Task> matches = taskList.find(keywords);
 
         int size = matches.size();
 
@@ -82,46 +104,45 @@ public class Ui {
     }
 
     /**
-     * Prints all tasks that occur on the specified date.
+     * Prints all tasks that occur on the specified date, or on any day of the specified range.
      *
      * @param taskList the list of tasks currently added.
-     * @param date the date.
-     * @throws LebronException if there is an invalid date format.
+     * @param date the date, or the first day of the range.
+     * @param endDate the last day of the range, or null to check a single date.
+     * @throws LebronException if there is an invalid date format, or if the range ends before it starts.
      */
-    public String handleCheck(TaskList taskList, String date) throws LebronException {
-        LocalDate targetDate;
-
-        try {
-            targetDate = LocalDate.parse(date, DateTimeFormatter.ofPattern("yyyy-M-d"));
-        } catch (DateTimeParseException e) {
-            throw new LebronException("Error - invalid date format. Use yyyy-MM-dd format.");
+    public String handleCheck(TaskList taskList, String date, String endDate) throws LebronException {
+        LocalDate targetDate = parseCheckDate(date);
+        LocalDate lastDate = endDate == null ? targetDate : parseCheckDate(endDate);
+        if (lastDate.isBefore(targetDate)) {
+            throw new LebronException("Error - the end date cannot be before the start date.");
         }
 
-        List<Task> tasksOnDate = new ArrayList<>();
-        for (int i = 0; i < taskList.size(); i++) {
-            Task task = taskList.get(i);
-            if (task instanceof Deadline) {
-                if (((Deadline) task).isOnDate(targetDate)) {
-                    tasksOnDate.add(task);
-                }
-            } else if (task instanceof Event) {
-                if (((Event) task).isOnDate(targetDate)) {
-                    tasksOnDate.add(task);
-                }
-            }
-        }
+        String period = endDate == null
+                ? "for " + DateCodec.formatDay(targetDate.toEpochDay())
+                : "from " + DateCodec.formatDay(targetDate.toEpochDay())
+                        + " to " + DateCodec.formatDay(lastDate.toEpochDay());
+        List<Task> tasksOnDate = taskList.between(targetDate, lastDate);
 
         if (tasksOnDate.isEmpty()) {
-            return "No tasks scheduled for " + targetDate.format(DateTimeFormatter.ofPattern("MMM dd yyyy"));
+            return "No tasks scheduled " + period;
         } else {
             StringBuilder sb = new StringBuilder();
             for (int i = 0; i < tasksOnDate.size(); i++) {
                 sb.append("\n").append(i + 1).append(". ").append(tasksOnDate.get(i).toString());
             }
-            return "Tasks scheduled for " + targetDate.format(DateTimeFormatter.ofPattern("MMM dd yyyy")) + ":" + sb;
+            return "Tasks scheduled " + period + ":" + sb;
         }
     }
 
+    private LocalDate parseCheckDate(String date) throws LebronException {
+        long day = DateCodec.parseDate(date);
+        if (day == DateCodec.INVALID) {
+            throw new LebronException("Error - invalid date format. Use yyyy-MM-dd format.");
+        }
+        return LocalDate.ofEpochDay(day);
+    }
+
     /**
      * Prints the entire list of tasks.
      *
@@ -129,17 +150,72 @@ public class Ui {
      */
     public String handleList(TaskList taskList) {
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < taskList.size(); i++) {
-            if (taskList.get(i) == null) {
-                break;
-            } else {
-                sb.append("\n").append(i + 1).append(". ").append(taskList.get(i).toString());
-            }
+        TaskList.Page page = taskList.page(0, -1);
+        for (int i = 0; i < page.getEnd(); i++) {
+            sb.append("\n").append(i + 1).append(". ");
+            page.appendTask(i, sb);
         }
 
         return "Here are the tasks in your list:" + sb;
     }
 
+    /**
+     * Prints a range of the list of tasks.
+     *
+     * @param taskList the list of tasks currently added.
+     * @param offset the number of tasks to skip.
+     * @param limit the most tasks to print, or -1 to print every task after the offset.
+     */
+    public String handleList(TaskList taskList, int offset, int limit) {
+        if (offset == 0 && limit < 0) {
+            return handleList(taskList);
+        }
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeList(taskList, offset, limit, sb);
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a range of the list of tasks straight to the given output, a task at a time, so that the whole reply
+     * is never held in memory at once. The header and the tasks all come from one page of the list, so edits
+     * made while the reply is written neither skip nor repeat tasks, and only the tasks shown are copied.
+     *
+     * @param taskList the list of tasks currently added.
+     * @param offset the number of tasks to skip.
+     * @param limit the most tasks to print, or -1 to print every task after the offset.
+     * @param out where to write the reply.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void writeList(TaskList taskList, int offset, int limit, Appendable out) throws IOException {
+        TaskList.Page page = taskList.page(offset, limit);
+        int size = page.getSize();
+        int start = page.getStart();
+        int end = page.getEnd();
+        if (start == 0 && end == size) {
+            out.append("Here are the tasks in your list:");
+        } else if (start == end) {
+            out.append("There are only ").append(Integer.toString(size)).append(" tasks in your list.");
+            return;
+        } else {
+            out.append("Here are tasks ").append(Integer.toString(start + 1)).append(" to ")
+                    .append(Integer.toString(end)).append(" of the ").append(Integer.toString(size))
+                    .append(" in your list:");
+        }
+
+        StringBuilder line = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            line.setLength(0);
+            line.append('\n').append(i + 1).append(". ");
+            page.appendTask(i, line);
+            out.append(line);
+        }
+    }
+
     /**
      * Shows a confirmation that a task was marked as done.
      *
@@ -182,6 +258,23 @@ public class Ui {
                 + String.format("\nNow you have %d %s in the list.", size, size == 1 ? "task" : "tasks");
     }
 
+    /**
+     * Shows how many tasks there are, how far saving lags behind the changes made to them,
+     * and how much memory sharing repeated descriptions has saved.
+     *
+     * @param size the number of tasks in the list.
+     * @param unflushed the number of changes not yet saved.
+     * @param lagMillis how long the oldest unsaved change has been waiting, in milliseconds.
+     * @param sharedCount the number of repeated descriptions that share a single copy.
+     * @param savedBytes roughly how many bytes sharing them has saved.
+     */
+    public String showStats(int size, int unflushed, long lagMillis, long sharedCount, long savedBytes) {
+        return String.format("You have %d %s in the list.", size, size == 1 ? "task" : "tasks")
+                + String.format("\nUnsaved changes: %d (oldest waiting %d ms)", unflushed, lagMillis)
+                + String.format("\nRepeated descriptions shared: %d (about %d KB saved)", sharedCount,
+                        (savedBytes + 512) / 1024);
+    }
+
     /**
      * Prints an error message.
      *
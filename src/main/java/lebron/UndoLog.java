@@ -0,0 +1,263 @@
+package lebron;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded log of the changes made to the task list, for undo and redo.
+ * Each change is kept as a compact entry in a ring buffer: what kind of change it was, the index it was made at,
+ * and the task it added or deleted. Changes are grouped, so that every change of a batch is undone together.
+ * Once the log is full, recording a change forgets the oldest group. Undoing moves a cursor back through the log,
+ * and redoing moves it forward again; recording a new change forgets everything that could have been redone.
+ * While a group is still open, undo and redo step over its changes one at a time.
+ */
+public class UndoLog {
+    /** A task was added at the index. */
+    public static final byte ADD = 0;
+    /** A task was deleted from the index. */
+    public static final byte DELETE = 1;
+    /** The task at the index was marked as done, and was not done before. */
+    public static final byte MARK = 2;
+    /** The task at the index was marked as done, and was already done. */
+    public static final byte MARK_DONE = 3;
+    /** The task at the index was marked as not done, and was done before. */
+    public static final byte UNMARK = 4;
+    /** The task at the index was marked as not done, and already was not done. */
+    public static final byte UNMARK_UNDONE = 5;
+
+    private final byte[] kinds;
+    private final int[] indexes;
+    private final int[] groups;
+    private final Task[] tasks;
+    private int head;
+    private int size;
+    private int undoable;
+    private int nextGroup;
+    private int openGroup = -1;
+    private int droppedGroup = -1;
+
+    /**
+     * A change in the log.
+     */
+    public static final class Entry {
+        private final byte kind;
+        private final int index;
+        private final Task task;
+
+        private Entry(byte kind, int index, Task task) {
+            this.kind = kind;
+            this.index = index;
+            this.task = task;
+        }
+
+        public byte getKind() {
+            return kind;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+    }
+
+    /**
+     * Creates an empty log.
+     *
+     * @param capacity the most changes the log keeps.
+     */
+    public UndoLog(int capacity) {
+        assert capacity > 0 : "Undo log must hold at least one change";
+        this.kinds = new byte[capacity];
+        this.indexes = new int[capacity];
+        this.groups = new int[capacity];
+        this.tasks = new Task[capacity];
+    }
+
+    /**
+     * Returns the kind of change that reverts the given kind of change.
+     *
+     * @param kind the kind of change.
+     * @return the kind of its inverse.
+     */
+    public static byte inverse(byte kind) {
+        switch (kind) {
+        case ADD:
+            return DELETE;
+        case DELETE:
+            return ADD;
+        case MARK:
+            return UNMARK;
+        case UNMARK:
+            return MARK;
+        default:
+            // Marking a task that was already in that state changed nothing, so nothing needs reverting either
+            return kind;
+        }
+    }
+
+    /**
+     * Starts a group: every change recorded until {@link #endGroup()} is undone and redone together.
+     */
+    public void beginGroup() {
+        openGroup = nextGroup++;
+    }
+
+    /**
+     * Ends the group started by {@link #beginGroup()}.
+     */
+    public void endGroup() {
+        openGroup = -1;
+        droppedGroup = -1;
+    }
+
+    /**
+     * Records a change to the list.
+     *
+     * @param kind the kind of change.
+     * @param index the 1-based index of the task that was changed.
+     * @param task the task that was added or deleted, or null for other changes.
+     */
+    public void record(byte kind, int index, Task task) {
+        int group = openGroup >= 0 ? openGroup : nextGroup++;
+        if (group == droppedGroup) {
+            return;
+        }
+        // Whatever was undone can no longer be redone once the list has changed in some other way
+        for (int i = undoable; i < size; i++) {
+            tasks[slot(i)] = null;
+        }
+        size = undoable;
+        if (size == kinds.length) {
+            dropOldestGroup();
+            if (size == 0) {
+                // The group alone outgrew the log, so none of it can be undone
+                droppedGroup = group;
+                return;
+            }
+        }
+
+        int s = slot(size);
+        kinds[s] = kind;
+        indexes[s] = index;
+        groups[s] = group;
+        tasks[s] = task;
+        size++;
+        undoable = size;
+    }
+
+    /**
+     * Returns whether there is a change to undo.
+     *
+     * @return true if a change can be undone.
+     */
+    public boolean canUndo() {
+        return undoable > 0;
+    }
+
+    /**
+     * Returns whether there is an undone change to redo.
+     *
+     * @return true if a change can be redone.
+     */
+    public boolean canRedo() {
+        return undoable < size;
+    }
+
+    /**
+     * Steps back over the last group of changes.
+     *
+     * @return the changes to revert, latest first, or an empty list if there is nothing to undo.
+     */
+    public List<Entry> undo() {
+        List<Entry> entries = new ArrayList<>();
+        if (undoable == 0) {
+            return entries;
+        }
+        int group = groups[slot(undoable - 1)];
+        do {
+            undoable--;
+            entries.add(entryAt(undoable));
+        } while (group != openGroup && undoable > 0 && groups[slot(undoable - 1)] == group);
+        return entries;
+    }
+
+    /**
+     * Steps forward over the next undone group of changes.
+     *
+     * @return the changes to make again, earliest first, or an empty list if there is nothing to redo.
+     */
+    public List<Entry> redo() {
+        List<Entry> entries = new ArrayList<>();
+        if (undoable == size) {
+            return entries;
+        }
+        int group = groups[slot(undoable)];
+        do {
+            entries.add(entryAt(undoable));
+            undoable++;
+        } while (group != openGroup && undoable < size && groups[slot(undoable)] == group);
+        return entries;
+    }
+
+    /**
+     * Returns every change in the log, oldest first, with the group each belongs to.
+     *
+     * @return the changes that can be undone, followed by those that can be redone.
+     */
+    List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            entries.add(entryAt(i));
+        }
+        return entries;
+    }
+
+    int groupAt(int i) {
+        return groups[slot(i)];
+    }
+
+    int getUndoableCount() {
+        return undoable;
+    }
+
+    /**
+     * Appends a change read back from a saved log. The changes must be restored oldest first.
+     */
+    void restore(byte kind, int index, int group, Task task, boolean isUndoable) {
+        if (size == kinds.length) {
+            return;
+        }
+        int s = slot(size);
+        kinds[s] = kind;
+        indexes[s] = index;
+        groups[s] = group;
+        tasks[s] = task;
+        size++;
+        if (isUndoable) {
+            undoable = size;
+        }
+        nextGroup = Math.max(nextGroup, group + 1);
+    }
+
+    private void dropOldestGroup() {
+        int group = groups[head];
+        while (size > 0 && groups[head] == group) {
+            tasks[head] = null;
+            head = (head + 1) % kinds.length;
+            size--;
+            undoable--;
+        }
+    }
+
+    private Entry entryAt(int i) {
+        int s = slot(i);
+        return new Entry(kinds[s], indexes[s], tasks[s]);
+    }
+
+    private int slot(int i) {
+        return (head + i) % kinds.length;
+    }
+}
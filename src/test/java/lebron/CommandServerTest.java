@@ -0,0 +1,150 @@
+package lebron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CommandServerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void twoClientsShareOneTaskListOverLoopback() throws Exception {
+        Lebron lebron = new Lebron(dir.resolve("Lebron.txt").toString());
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread serving = new Thread(() -> {
+            try {
+                new CommandServer(lebron).serve(server);
+            } catch (IOException e) {
+                // The test fails on the replies instead
+            }
+        });
+        serving.start();
+
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<List<String>>> sessions = new ArrayList<>();
+            for (String name : List.of("a", "b")) {
+                sessions.add(clients.submit(() -> talk(server.getLocalPort(), name)));
+            }
+            for (Future<List<String>> session : sessions) {
+                List<String> replies = session.get();
+                assertEquals(23, replies.size());
+                assertTrue(replies.get(0).startsWith("Got it. I've added this task:"));
+                assertTrue(replies.get(20).contains("Lebron does not know"));
+                assertTrue(replies.get(22).endsWith("# session: 23 requests"));
+            }
+        } finally {
+            clients.shutdownNow();
+            server.close();
+            serving.join();
+            lebron.close();
+        }
+        assertTrue(lebron.run("list 2").startsWith("Here are tasks 21 to 40 of the 40 in your list:"));
+        assertTrue(lebron.run("find task 19 from a").contains("Here is the only matching task"));
+        assertTrue(lebron.run("find task 19 from b").contains("Here is the only matching task"));
+    }
+
+    @Test
+    void byeEndsOnlyThatClientsSessionAndUndoIsRefused() throws Exception {
+        String file = dir.resolve("Lebron.txt").toString();
+        Lebron lebron = new Lebron(file);
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread serving = new Thread(() -> {
+            try {
+                new CommandServer(lebron).serve(server);
+            } catch (IOException e) {
+                // The test fails on the replies instead
+            }
+        });
+        serving.start();
+
+        try (Socket a = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+                Socket b = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+            BufferedReader inA = new BufferedReader(new InputStreamReader(a.getInputStream(), StandardCharsets.UTF_8));
+            BufferedReader inB = new BufferedReader(new InputStreamReader(b.getInputStream(), StandardCharsets.UTF_8));
+            Writer outA = new OutputStreamWriter(a.getOutputStream(), StandardCharsets.UTF_8);
+            Writer outB = new OutputStreamWriter(b.getOutputStream(), StandardCharsets.UTF_8);
+
+            assertTrue(send(outA, inA, "todo from a").startsWith("Got it."));
+            assertTrue(send(outB, inB, "todo from b").startsWith("Got it."));
+            assertEquals("Bye. Hope to see you again soon!", send(outA, inA, "bye"));
+            assertTrue(inA.readLine().startsWith("# session: 2 requests"));
+
+            assertTrue(send(outB, inB, "todo after a left").startsWith("Got it."));
+            assertTrue(send(outB, inB, "undo").contains("not available"));
+            assertTrue(send(outB, inB, "redo").contains("not available"));
+            assertTrue(send(outB, inB, "list").contains("3. [T][ ] after a left"));
+        } finally {
+            server.close();
+            serving.join();
+            lebron.close();
+        }
+        List<Task> saved = new Storage(file, false, 1000).loadTasks();
+        assertEquals(3, saved.size());
+        assertEquals("after a left", saved.get(2).getDescription());
+    }
+
+    private static String send(Writer out, BufferedReader in, String command) throws IOException {
+        out.write(command + "\n");
+        out.flush();
+        return readReply(in);
+    }
+
+    /**
+     * Adds twenty tasks, sends a command that does not parse, lists the tasks and says bye.
+     *
+     * @return each reply, without its timing line, and the session summary without its timings.
+     */
+    private static List<String> talk(int port, String name) throws IOException {
+        List<String> replies = new ArrayList<>();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            List<String> commands = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                commands.add("todo task " + i + " from " + name);
+            }
+            commands.add("dance");
+            commands.add("list 1");
+            commands.add("bye");
+            for (String command : commands) {
+                out.write(command + "\n");
+                out.flush();
+                replies.add(readReply(in));
+            }
+            String summary = in.readLine();
+            replies.set(replies.size() - 1,
+                    replies.get(replies.size() - 1) + "\n" + summary.substring(0, summary.indexOf(',')));
+        }
+        return replies;
+    }
+
+    private static String readReply(BufferedReader in) throws IOException {
+        StringBuilder reply = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.startsWith("# ")) {
+            reply.append(reply.length() == 0 ? "" : "\n").append(line);
+        }
+        return reply.toString();
+    }
+}
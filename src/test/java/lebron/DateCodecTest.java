@@ -0,0 +1,115 @@
+package lebron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the codec against the {@link DateTimeFormatter} patterns it stands in for.
+ */
+public class DateCodecTest {
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-M-d");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-M-d HHmm");
+    private static final String[] EDGE_CASES = {
+        "2025-8-26", "2025-08-26", "2025-8-26 1305", "2025-8-26 0000", "2025-8-26 2359",
+        "2025-2-29", "2024-2-29", "2025-2-30", "2024-2-31", "2025-4-31", "2025-2-32", "2025-0-1", "2025-13-1",
+        "2025-1-0", "2025-01-0000000000000000001", "2025-1-00000000000000000001", "2025-0000000000000000012-1",
+        "2025-12-31 2400", "2024-2-30 2400", "2025-1-1 2401", "2025-1-1 2460", "2025-1-1 1260", "2025-1-1 123",
+        "2025-1-1 12345", "2025-1-1  1200", "2025-1-1\t1200", "2025-1-1 1200 ", " 2025-1-1", "2025-1-1 ",
+        "0000-1-1", "0001-1-1", "1969-12-31 2359", "999-1-1", "02025-1-1", "12345-1-1", "+12345-1-1",
+        "+2025-1-1", "+00001-1-1", "+0000012345-6-7", "+999999999-12-31", "+999999999-12-31 2359",
+        "+999999999-12-31 2400", "+1000000000-1-1", "+0000000000000000001-1-1", "+00000000000000000001-1-1",
+        "-2025-1-1", "2025--1-1", "2025-+1-1", "2025-1-+1", "2025-1", "2025-1-", "2025", "", "+", "-",
+        "2025-1-1-", "2025/1/1", "２０２５-1-1", "2025-1-1 １２００", "2025-1-1 12:00", "today",
+    };
+
+    @Test
+    void parsesEdgeCasesLikeTheFormatter() {
+        for (String s : EDGE_CASES) {
+            assertParsesLikeFormatter(s);
+        }
+    }
+
+    @Test
+    void parsesRandomStringsLikeTheFormatter() {
+        Random random = new Random(23);
+        String alphabet = "0123456789-+ ";
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            if (random.nextBoolean()) {
+                // Mostly well-formed, so that many of the strings are close to valid
+                sb.append(random.nextInt(4) == 0 ? "+" + (10000 + random.nextInt(90000)) : 1000 + random.nextInt(9000))
+                        .append('-').append(random.nextInt(15)).append('-').append(random.nextInt(34));
+                if (random.nextBoolean()) {
+                    sb.append(' ').append(String.format("%02d%02d", random.nextInt(26), random.nextInt(62)));
+                }
+            } else {
+                int length = random.nextInt(16);
+                for (int j = 0; j < length; j++) {
+                    sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+            assertParsesLikeFormatter(sb.toString());
+        }
+    }
+
+    @Test
+    void formatsLikeTheFormatter() {
+        DateTimeFormatter display = DateTimeFormatter.ofPattern("MMM d yyyy");
+        DateTimeFormatter displayTime = DateTimeFormatter.ofPattern("MMM d yyyy, h:mm a");
+        DateTimeFormatter day = DateTimeFormatter.ofPattern("MMM dd yyyy");
+        Random random = new Random(42);
+        long min = LocalDate.of(1, 1, 1).toEpochDay();
+        long max = LocalDate.of(999_999_999, 12, 31).toEpochDay();
+        long[] fixed = {
+            0, -1, min, max, LocalDate.of(9999, 12, 31).toEpochDay(), LocalDate.of(10000, 1, 1).toEpochDay(),
+        };
+        for (int i = 0; i < 100_000; i++) {
+            long epochDay;
+            if (i < fixed.length) {
+                epochDay = fixed[i];
+            } else if (i % 2 == 0) {
+                epochDay = -800_000 + random.nextInt(1_600_000);
+            } else {
+                epochDay = min + (long) (random.nextDouble() * (max - min));
+            }
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            assertEquals(date.format(DATE), DateCodec.formatInput(epochDay, false));
+            assertEquals(date.format(display), DateCodec.formatDisplay(epochDay, false));
+            assertEquals(date.format(day), DateCodec.formatDay(epochDay));
+
+            long epochMinute = epochDay * 24 * 60 + random.nextInt(24 * 60);
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+            assertEquals(dateTime.format(DATE_TIME), DateCodec.formatInput(epochMinute, true));
+            assertEquals(dateTime.format(displayTime), DateCodec.formatDisplay(epochMinute, true));
+            if (epochDay >= min) {
+                // Before year 1 the year of era counts backwards, so those dates are not read back the same
+                assertEquals(epochMinute, DateCodec.parseDateTime(DateCodec.formatInput(epochMinute, true)));
+            }
+        }
+    }
+
+    private static void assertParsesLikeFormatter(String s) {
+        long expectedDate;
+        try {
+            expectedDate = LocalDate.parse(s, DATE).toEpochDay();
+        } catch (DateTimeParseException e) {
+            expectedDate = DateCodec.INVALID;
+        }
+        long expectedDateTime;
+        try {
+            expectedDateTime = LocalDateTime.parse(s, DATE_TIME).toEpochSecond(ZoneOffset.UTC) / 60;
+        } catch (DateTimeParseException e) {
+            expectedDateTime = DateCodec.INVALID;
+        }
+        assertEquals(expectedDate, DateCodec.parseDate(s), "date \"" + s + "\"");
+        assertEquals(expectedDateTime, DateCodec.parseDateTime(s), "date-time \"" + s + "\"");
+    }
+}
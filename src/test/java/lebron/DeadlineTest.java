@@ -0,0 +1,41 @@
+package lebron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+public class DeadlineTest {
+    @Test
+    void isOnDateWithTimeMatchesOnlyThatDay() throws LebronException {
+        Deadline midnight = new Deadline("submit", "2025-08-26 0000");
+        assertTrue(midnight.isOnDate(LocalDate.of(2025, 8, 26)));
+        assertFalse(midnight.isOnDate(LocalDate.of(2025, 8, 25)));
+
+        Deadline late = new Deadline("submit", "1969-12-31 2359");
+        assertTrue(late.isOnDate(LocalDate.of(1969, 12, 31)));
+        assertFalse(late.isOnDate(LocalDate.of(1970, 1, 1)));
+    }
+
+    @Test
+    void packedDeadlineFormatsLikeTheParsedOne() throws LebronException {
+        Deadline parsed = new Deadline("submit", "2025-8-6 1305");
+        Deadline packed = new Deadline("submit", parsed.getPackedBy(), parsed.getHasTime());
+        assertEquals("Aug 6 2025, 1:05 PM", packed.getBy());
+        assertEquals("2025-8-6 1305", packed.getOriginalBy());
+        assertEquals(parsed.toString(), packed.toString());
+    }
+
+    @Test
+    void displayStringFollowsMarking() throws LebronException {
+        Deadline d = new Deadline("submit", "2025-08-26");
+        assertEquals("[D][ ] submit (by: Aug 26 2025)", d.toString());
+        d.markDone();
+        assertEquals("[D][X] submit (by: Aug 26 2025)", d.toString());
+        d.markUndone();
+        assertEquals("[D][ ] submit (by: Aug 26 2025)", d.toString());
+    }
+}
@@ -0,0 +1,50 @@
+package lebron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DescriptionPoolTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void equalDescriptionsShareOneCopy() {
+        DescriptionPool pool = new DescriptionPool(16);
+        String first = pool.intern(new String("pay invoice"));
+        String second = pool.intern(new String("pay invoice"));
+        assertSame(first, second);
+        assertEquals(1, pool.getSharedCount());
+        assertTrue(pool.getSavedBytes() > 0);
+
+        // The same copy again is not a saving
+        pool.intern(first);
+        assertEquals(1, pool.getSharedCount());
+    }
+
+    @Test
+    void sizeZeroSwitchesPoolingOff() {
+        DescriptionPool pool = new DescriptionPool(0);
+        String first = new String("standup");
+        assertSame(first, pool.intern(first));
+        assertNotSame(first, pool.intern(new String("standup")));
+        assertEquals(0, pool.getSharedCount());
+    }
+
+    @Test
+    void loadedTasksShareRepeatedDescriptions() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Files.writeString(file, "T | 0 | standup\nD | 1 | standup | 2025-8-26\nT | 0 | standup\n");
+        List<Task> tasks = new Storage(file.toString(), false, 1000).loadTasks();
+        assertSame(tasks.get(0).getDescription(), tasks.get(1).getDescription());
+        assertSame(tasks.get(0).getDescription(), tasks.get(2).getDescription());
+    }
+}
@@ -0,0 +1,130 @@
+package lebron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LebronTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void batchIsSavedOnceAndUndoneAsOneGroup() throws Exception {
+        String file = dir.resolve("Lebron.txt").toString();
+        Lebron lebron = new Lebron(file);
+        lebron.run("todo before");
+
+        List<String> replies = lebron.runBatch(List.of("todo read book", "deadline return book /by 2025-10-01",
+                "mark 2", "list"));
+        assertEquals(4, replies.size());
+        assertTrue(replies.get(3).contains("return book"));
+        assertEquals(3, new Storage(file, false, 1000).loadTasks().size());
+
+        lebron.run("undo");
+        lebron.run("bye");
+        List<Task> loaded = new Storage(file, false, 1000).loadTasks();
+        assertEquals(1, loaded.size());
+        assertEquals("before", loaded.get(0).getDescription());
+    }
+
+    @Test
+    void findWithAndMatchesOnlyTasksContainingEveryKeyword() {
+        Lebron lebron = new Lebron(dir.resolve("Lebron.txt").toString());
+        lebron.run("todo read book");
+        lebron.run("todo return book now");
+        lebron.run("todo leave now");
+        lebron.run("todo black/and white book");
+
+        String both = lebron.run("find book /and now");
+        assertTrue(both.startsWith("Here is the only matching task"), both);
+        assertTrue(both.contains("return book now"), both);
+        assertTrue(lebron.run("find book /and zzz").contains("No matching tasks"));
+        assertEquals(3, lebron.run("find book").split("\n").length - 1);
+        assertTrue(lebron.run("find k/and w").contains("black/and white book"));
+    }
+
+    @Test
+    void undoRestoresDeletedTaskInPlaceAndRedoDeletesItAgain() {
+        Lebron lebron = new Lebron(dir.resolve("Lebron.txt").toString());
+        lebron.run("todo a");
+        lebron.run("todo b");
+        lebron.run("todo c");
+        lebron.run("mark 2");
+        lebron.run("delete 2");
+
+        lebron.run("undo");
+        String list = lebron.run("list");
+        assertTrue(list.indexOf("a") < list.indexOf("[X] b") && list.indexOf("[X] b") < list.indexOf("c"), list);
+        lebron.run("undo");
+        assertTrue(lebron.run("list").contains("[ ] b"));
+
+        lebron.run("redo");
+        lebron.run("redo");
+        assertFalse(lebron.run("list").contains("b"));
+        assertTrue(lebron.run("redo").contains("Nothing to redo"));
+    }
+
+    @Test
+    void undoLogSurvivesRestartWhenPersisted() {
+        String file = dir.resolve("Lebron.txt").toString();
+        System.setProperty("lebron.undo.persist", "true");
+        try {
+            Lebron lebron = new Lebron(file);
+            lebron.run("todo a");
+            lebron.run("todo b");
+            lebron.run("delete 1");
+            lebron.run("bye");
+
+            Lebron restarted = new Lebron(file);
+            restarted.run("undo");
+            String list = restarted.run("list");
+            assertTrue(list.indexOf("a") < list.indexOf("b"), list);
+            restarted.run("undo");
+            restarted.run("undo");
+            assertTrue(restarted.run("undo").contains("Nothing to undo"));
+        } finally {
+            System.clearProperty("lebron.undo.persist");
+        }
+    }
+
+    @Test
+    void listShowsOnePageOrRangeAtATime() throws Exception {
+        Lebron lebron = new Lebron(dir.resolve("Lebron.txt").toString());
+        List<String> inputs = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            inputs.add("todo task " + i);
+        }
+        lebron.runBatch(inputs);
+
+        String page = lebron.run("list 2");
+        assertTrue(page.startsWith("Here are tasks 21 to 25 of the 25 in your list:"), page);
+        assertEquals(6, page.split("\n").length);
+        assertTrue(page.endsWith("25. [T][ ] task 25"), page);
+        assertEquals("Here are tasks 4 to 5 of the 25 in your list:\n4. [T][ ] task 4\n5. [T][ ] task 5",
+                lebron.run("list --offset 3 --limit 2"));
+        assertEquals("There are only 25 tasks in your list.", lebron.run("list 3"));
+
+        for (String input : List.of("list", "list --limit 7", "list --offset 24")) {
+            StringBuilder streamed = new StringBuilder();
+            lebron.run(input, streamed);
+            assertEquals(lebron.run(input), streamed.toString(), input);
+        }
+    }
+
+    @Test
+    void onlyCommandsThatCannotChangeTheListAreReadOnly() {
+        for (String input : List.of("list", " find book ", "check 2025-10-01", "stats", "hi", "nonsense", "")) {
+            assertTrue(Lebron.isReadOnly(input), input);
+        }
+        for (String input : List.of("todo read", "mark 1", "delete 1", "undo", "redo", "bye")) {
+            assertFalse(Lebron.isReadOnly(input), input);
+        }
+    }
+}
@@ -4,6 +4,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 public class ParserTest {
@@ -62,4 +66,204 @@ public class ParserTest {
         assertThrows(LebronException.class, () -> Parser.parse("abracadabra"));
         assertThrows(LebronException.class, () -> Parser.parse(""));
     }
+
+    @Test
+    void parseMatchesReferenceParserOnEveryInput() {
+        List<String> inputs = new ArrayList<>(List.of(
+                "hi", "HI there", "bye", "list", "LiSt", "list extra", "list\u0001", "list\u0001 x",
+                "list 3", "list 0", "list 2 3", "list 107374183", "list --limit 5", "list --OFFSET 3 --limit\t2",
+                "list --limit 0", "list --offset 0", "list --offset 1 --offset 2", "list --limit",
+                "list --limit 2 --offset 1 x", "list \u0663", "mark 2",
+                "mark", "mark +3", "mark -0", "mark 00", "mark 2147483647", "mark 2147483648", "mark \u0663",
+                "unmark 1 2", "delete\t7", "todo", "todo read book", "todo \u0001x", "Todo   a  b  ",
+                "deadline x /by", "deadline /by y", "deadline a /by b", "deadline a /byb", "deadline  a/by b/by c",
+                "event a /from b /to c", "event a /to b /from c", "event a /from /to c", "event a /from b – /to c",
+                "event a /from b /to c – d", "event /from b /to c", "check", "check 2025-1-1", "check a b",
+                "check a b c", "check a\tb", "find", "find book /and x", "undo", "undo 3", "redo", "REDO 2", "stats",
+                "stats now", "\u212Aill", "MAR\u212A 1", "\u0130", "", "   ", "\n\t", "unknown"));
+
+        // Random inputs assembled from the pieces the parsers treat specially
+        String[] pieces = {"mark", "todo", "deadline", "event", "check", "list", "find", "/by", "/from", "/to", "–",
+            "--limit", "--offset", " ", "  ", "\t", "\u0001", "\u000B", "1", "-", "+", "0", "a", "B", "2025-1-1",
+            "\u212A"};
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = random.nextInt(8); j >= 0; j--) {
+                sb.append(pieces[random.nextInt(pieces.length)]);
+            }
+            inputs.add(sb.toString());
+        }
+
+        for (String input : inputs) {
+            assertEquals(ReferenceParser.describe(input), describe(input), "input: " + input);
+        }
+    }
+
+    private static String describe(String input) {
+        try {
+            Parser.ParsedCommand pc = Parser.parse(input);
+            return pc.getType() + "|" + pc.getArg1() + "|" + pc.getArg2() + "|" + pc.getArg3() + "|" + pc.getIndex()
+                    + "|" + pc.getOffset() + "|" + pc.getLimit();
+        } catch (LebronException e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * The parser as it was before the single-pass scanner, to check that the scanner still behaves exactly like it.
+     */
+    private static final class ReferenceParser {
+        static String describe(String raw) {
+            try {
+                return parse(raw);
+            } catch (LebronException e) {
+                return "error: " + e.getMessage();
+            }
+        }
+
+        private static String result(Parser.CommandType type, String arg1, String arg2, String arg3, int index) {
+            return type + "|" + arg1 + "|" + arg2 + "|" + arg3 + "|" + index + "|0|-1";
+        }
+
+        private static String list(int offset, int limit) {
+            return Parser.CommandType.LIST + "|null|null|null|-1|" + offset + "|" + limit;
+        }
+
+        private static String parseList(String rest) throws LebronException {
+            String usage = "Error - Use: list [<page>] or list [--limit <n>] [--offset <n>]";
+            String[] args = rest.split("\\s+");
+            if (args.length == 1) {
+                int page = count(args[0]);
+                if (page <= 0) {
+                    throw new LebronException(usage);
+                }
+                return list((int) Math.min((page - 1L) * Parser.PAGE_SIZE, Integer.MAX_VALUE), Parser.PAGE_SIZE);
+            }
+            if (args.length % 2 != 0 || args.length > 4) {
+                throw new LebronException(usage);
+            }
+            int offset = -1;
+            int limit = -1;
+            for (int i = 0; i < args.length; i += 2) {
+                String option = args[i].toLowerCase();
+                int value = count(args[i + 1]);
+                if (value >= 0 && offset == -1 && option.equals("--offset")) {
+                    offset = value;
+                } else if (value > 0 && limit == -1 && option.equals("--limit")) {
+                    limit = value;
+                } else {
+                    throw new LebronException(usage);
+                }
+            }
+            return list(Math.max(offset, 0), limit);
+        }
+
+        private static int count(String s) {
+            if (!s.matches("[0-9]+")) {
+                return -1;
+            }
+            try {
+                return Integer.parseInt(s);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private static String parse(String raw) throws LebronException {
+            if (raw == null || raw.isEmpty()) {
+                throw new LebronException("Error - command cannot be empty.");
+            }
+            String[] first = raw.trim().split("\\s+", 2);
+            String head = first[0].toLowerCase().trim();
+            String rest = first.length > 1 ? first[1] : "";
+
+            switch (head) {
+            case "hi":
+                return result(Parser.CommandType.HI, null, null, null, -1);
+            case "bye":
+                return result(Parser.CommandType.BYE, null, null, null, -1);
+            case "list":
+                return rest.isEmpty() ? result(Parser.CommandType.LIST, null, null, null, -1) : parseList(rest);
+            case "mark":
+                return result(Parser.CommandType.MARK, null, null, null, parseIndex(rest, "mark <index>"));
+            case "unmark":
+                return result(Parser.CommandType.UNMARK, null, null, null, parseIndex(rest, "unmark <index>"));
+            case "delete":
+                return result(Parser.CommandType.DELETE, null, null, null, parseIndex(rest, "delete <index>"));
+            case "todo":
+                if (rest.isEmpty()) {
+                    throw new LebronException("Error - description of a todo cannot be empty.");
+                }
+                return result(Parser.CommandType.TODO, rest, null, null, -1);
+            case "deadline": {
+                int byPos = rest.indexOf("/by");
+                if (byPos < 0) {
+                    throw new LebronException("Error - Use: deadline <description> /by <date>");
+                }
+                String desc = rest.substring(0, byPos).trim();
+                String by = rest.substring(byPos + 3).trim();
+                if (desc.isEmpty() || by.isEmpty()) {
+                    throw new LebronException("Error - deadline needs description and /by <date>.");
+                }
+                return result(Parser.CommandType.DEADLINE, desc, by, null, -1);
+            }
+            case "event": {
+                int fromPart = rest.indexOf("/from");
+                int toPart = rest.indexOf("/to");
+                if (fromPart < 0 || toPart < 0 || toPart <= fromPart) {
+                    throw new LebronException("Error - Use: event <description> /from <from> /to <to>");
+                }
+                String desc = rest.substring(0, fromPart).trim();
+                String from = rest.substring(fromPart + 5, toPart).trim();
+                String to = rest.substring(toPart + 3).trim();
+                if (desc.isEmpty() || from.isEmpty() || to.isEmpty()) {
+                    throw new LebronException("Error - event needs description, /from and /to.");
+                } else if (from.contains("–") || to.contains("–")) {
+                    throw new LebronException("Error - event start and end hasTime cannot contain character \"–\"");
+                }
+                return result(Parser.CommandType.EVENT, desc, from, to, -1);
+            }
+            case "check": {
+                String[] dates = rest.split("\\s+");
+                if (rest.isEmpty() || dates.length > 2) {
+                    throw new LebronException("Error - Use: check <yyyy-MM-dd> [<yyyy-MM-dd>]");
+                }
+                return result(Parser.CommandType.CHECK, dates[0], dates.length > 1 ? dates[1] : null, null, -1);
+            }
+            case "find":
+                if (rest.isEmpty()) {
+                    throw new LebronException("Error - keyword(s) not specified.");
+                }
+                return result(Parser.CommandType.FIND, rest, null, null, -1);
+            case "undo":
+                return result(Parser.CommandType.UNDO, null, null, null, -1);
+            case "redo":
+                return result(Parser.CommandType.REDO, null, null, null, -1);
+            case "stats":
+                if (!rest.isEmpty()) {
+                    throw new LebronException("Error - command 'stats' does not take arguments.");
+                }
+                return result(Parser.CommandType.STATS, null, null, null, -1);
+            default:
+                throw new LebronException("Error - Lebron does not know what you are talking about.");
+            }
+        }
+
+        private static int parseIndex(String s, String usage) throws LebronException {
+            s = s.trim();
+            if (s.isEmpty()) {
+                throw new LebronException("Error - missing index. Use: " + usage);
+            }
+            try {
+                int val = Integer.parseInt(s);
+                if (val <= 0) {
+                    throw new NumberFormatException();
+                }
+                return val;
+            } catch (NumberFormatException e) {
+                throw new LebronException("Error - index must be a positive integer.");
+            }
+        }
+    }
 }
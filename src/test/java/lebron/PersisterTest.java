@@ -0,0 +1,69 @@
+package lebron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PersisterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void drainPersistsEveryQueuedChange() throws Exception {
+        String file = dir.resolve("Lebron.txt").toString();
+        for (boolean isJournalled : new boolean[] {false, true}) {
+            Storage storage = new Storage(file, isJournalled, 7);
+            TaskList tasks = new TaskList(storage.loadTasks());
+            Persister persister = new Persister(storage, tasks, true);
+
+            for (int i = 0; i < 50; i++) {
+                tasks.add(new Todo("task " + i));
+                persister.recordAdd(tasks.get(tasks.size() - 1));
+            }
+            tasks.mark(3);
+            persister.recordMark(3);
+            tasks.delete(1);
+            persister.recordDelete(1);
+            persister.close();
+
+            assertEquals(0, persister.getUnflushedCount());
+            List<Task> loaded = new Storage(file, isJournalled, 7).loadTasks();
+            assertEquals(tasks.size(), loaded.size());
+            assertEquals("task 1", loaded.get(0).getDescription());
+            assertTrue(loaded.get(1).getIsDone());
+
+            new Storage(file, false, 7).saveTasks(List.of());
+        }
+    }
+
+    @Test
+    void recordsReplayedOnLoadCountTowardsTheNextCompaction() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Storage storage = new Storage(file.toString(), true, 3);
+        TaskList tasks = new TaskList(storage.loadTasks());
+        Persister persister = new Persister(storage, tasks, true);
+        for (int i = 0; i < 2; i++) {
+            tasks.add(new Todo("task " + i));
+            persister.recordAdd(tasks.get(i));
+        }
+        persister.close();
+        assertFalse(Files.exists(file) && Files.readString(file).contains("task 0"));
+
+        // The two replayed records and this one reach the threshold, so closing waits for them to be folded in
+        storage = new Storage(file.toString(), true, 3);
+        tasks = new TaskList(storage.loadTasks());
+        persister = new Persister(storage, tasks, true);
+        tasks.add(new Todo("task 2"));
+        persister.recordAdd(tasks.get(2));
+        persister.close();
+        assertTrue(Files.readString(file).contains("task 0"));
+        assertTrue(Files.readString(file).contains("task 2"));
+    }
+}
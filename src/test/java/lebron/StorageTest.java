@@ -0,0 +1,242 @@
+package lebron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StorageTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void journalReplaysChangesOnLoad() throws Exception {
+        String file = dir.resolve("Lebron.txt").toString();
+        Storage storage = new Storage(file, true, 1000);
+        TaskList tasks = new TaskList(storage.loadTasks());
+        Persister persister = new Persister(storage, tasks, false);
+
+        tasks.add(new Todo("read book"));
+        persister.recordAdd(tasks.get(0));
+        tasks.add(new Deadline("return book", "2025-10-01"));
+        persister.recordAdd(tasks.get(1));
+        tasks.mark(2);
+        persister.recordMark(2);
+        tasks.delete(1);
+        persister.recordDelete(1);
+        persister.close();
+
+        List<Task> loaded = new Storage(file, true, 1000).loadTasks();
+        assertEquals(1, loaded.size());
+        assertEquals("return book", loaded.get(0).getDescription());
+        assertTrue(loaded.get(0).getIsDone());
+    }
+
+    @Test
+    void journalIsFoldedIntoSaveFileWhenModeIsOff() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Storage storage = new Storage(file.toString(), true, 1000);
+        storage.loadTasks();
+        storage.appendRecords(List.of(storage.addRecord(new Todo("read book"))));
+
+        List<Task> loaded = new Storage(file.toString(), false, 1000).loadTasks();
+        assertEquals(1, loaded.size());
+        assertTrue(Files.readString(file).contains("T | 0 | read book"));
+        try (var files = Files.list(dir)) {
+            assertFalse(files.anyMatch(f -> f.getFileName().toString().contains(".journal.")));
+        }
+    }
+
+    @Test
+    void tornFinalJournalRecordIsIgnored() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Files.writeString(file, "T | 0 | read book\n");
+        Files.writeString(dir.resolve("Lebron.txt.journal.0"), "MARK | 1\nADD | D | 0 | ret");
+
+        List<Task> loaded = new Storage(file.toString(), true, 1000).loadTasks();
+        assertEquals(1, loaded.size());
+        assertTrue(loaded.get(0).getIsDone());
+    }
+
+    @Test
+    void tornFinalJournalRecordIsCutOffBeforeAppending() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Files.writeString(file, "T | 0 | read book\n");
+        Path journal = dir.resolve("Lebron.txt.journal.0");
+        Files.writeString(journal, "ADD | T | 0 | one\nADD | D | 0 | two | 2024-");
+
+        Storage storage = new Storage(file.toString(), true, 1000);
+        TaskList tasks = new TaskList(storage.loadTasks());
+        assertEquals("ADD | T | 0 | one\n", Files.readString(journal));
+        Persister persister = new Persister(storage, tasks, false);
+        tasks.mark(1);
+        persister.recordMark(1);
+        persister.close();
+
+        List<Task> loaded = new Storage(file.toString(), true, 1000).loadTasks();
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.get(0).getIsDone());
+        assertEquals("one", loaded.get(1).getDescription());
+    }
+
+    @Test
+    void saveTasksReplacesFileWithoutLeavingTemporaryFile() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Files.writeString(file, "T | 0 | old\n");
+        Storage storage = new Storage(file.toString(), false, 1000, SyncPolicy.ALWAYS);
+
+        storage.saveTasks(List.of(new Todo("new")));
+
+        assertEquals("T | 0 | new\n", Files.readString(file));
+        assertFalse(Files.exists(dir.resolve("Lebron.txt.tmp")));
+    }
+
+    @Test
+    void savedLineFollowsMarkAfterTheTaskWasSaved() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Storage storage = new Storage(file.toString(), false, 1000);
+        Task book = new Deadline("return book", "2025-10-1 1800");
+        storage.saveTasks(List.of(book));
+        assertEquals("D | 0 | return book | 2025-10-1 1800\n", Files.readString(file));
+
+        book.markDone();
+        storage.saveTasks(List.of(book));
+        assertEquals("D | 1 | return book | 2025-10-1 1800\n", Files.readString(file));
+        book.markUndone();
+        storage.saveTasks(List.of(book, new Todo("read")));
+        assertEquals("D | 0 | return book | 2025-10-1 1800\nT | 0 | read\n", Files.readString(file));
+    }
+
+    @Test
+    void syncPolicyParsesEverySetting() throws Exception {
+        assertEquals(SyncPolicy.Mode.ALWAYS, SyncPolicy.parse("always").getMode());
+        assertEquals(SyncPolicy.Mode.NEVER, SyncPolicy.parse(" Never ").getMode());
+        SyncPolicy periodic = SyncPolicy.parse("250");
+        assertEquals(SyncPolicy.Mode.PERIODIC, periodic.getMode());
+        assertEquals(250, periodic.getIntervalMillis());
+        assertThrows(LebronException.class, () -> SyncPolicy.parse("sometimes"));
+    }
+
+    @Test
+    void binaryFormatMigratesTextFileAndRoundTrips() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Files.writeString(file, "T | 0 | read book\n"
+                + "D | 1 | return book | 2025-10-1 1800\n"
+                + "E | 0 | camp | 2025-9-10 – 2025-9-12\n");
+        Storage binary = new Storage(file.toString(), false, 1000, SyncPolicy.NEVER, Storage.Format.BINARY);
+
+        List<Task> fromText = binary.loadTasks();
+        binary.saveTasks(fromText);
+        assertTrue(BinaryTaskCodec.isBinary(file));
+
+        List<Task> fromBinary = new Storage(file.toString(), false, 1000).loadTasks();
+        assertEquals(fromText.size(), fromBinary.size());
+        for (int i = 0; i < fromText.size(); i++) {
+            assertEquals(fromText.get(i).toString(), fromBinary.get(i).toString());
+        }
+    }
+
+    @Test
+    void binaryFileWithCorruptDescriptionLengthFailsToLoad() throws Exception {
+        Path file = dir.resolve("Lebron.bin");
+        Storage storage = new Storage(file.toString(), false, 1000, SyncPolicy.NEVER, Storage.Format.BINARY);
+        storage.saveTasks(List.of(new Todo("read book")));
+        byte[] bytes = Files.readAllBytes(file);
+
+        // Magic, version, generation, count, type and flags come before the first description's length
+        int lengthAt = 4 + 1 + 8 + 4 + 1 + 1;
+        for (int length : new int[] {-1, Integer.MAX_VALUE, 10}) {
+            bytes[lengthAt] = (byte) (length >>> 24);
+            bytes[lengthAt + 1] = (byte) (length >>> 16);
+            bytes[lengthAt + 2] = (byte) (length >>> 8);
+            bytes[lengthAt + 3] = (byte) length;
+            Files.write(file, bytes);
+            assertThrows(LebronException.class, storage::loadTasks);
+        }
+    }
+
+    @Test
+    void parallelAndMappedLoadsMatchSequentialLoad() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        StringBuilder sb = new StringBuilder("#gen 0\n");
+        for (int i = 0; i < 500; i++) {
+            sb.append("T | ").append(i % 2).append(" | task ").append(i).append("\n")
+                    .append("D | 0 | due ").append(i).append(" | 2025-10-").append(i % 28 + 1).append("\r\n")
+                    .append("\n");
+        }
+        Files.writeString(file, sb);
+
+        List<Task> expected = new Storage(file.toString(), false, 1000).loadTasks();
+        for (Storage.LoadMode mode : Storage.LoadMode.values()) {
+            Storage storage = new Storage(file.toString(), false, 1000);
+            storage.setLoadMode(mode);
+            storage.setParallelThreshold(0);
+            List<Task> loaded = storage.loadTasks();
+            assertEquals(expected.size(), loaded.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).toString(), loaded.get(i).toString());
+            }
+        }
+    }
+
+    @Test
+    void mappedLoadReadsValidFileAndReportsCorruptLinesWhenRead() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Files.writeString(file, "#gen 0\n"
+                + "T | 1 | read book\n"
+                + "D | 0 | return book | 2025-10-1 1800\n"
+                + "E | 0 | camp | 2025-9-10 – 2025-9-12\n");
+        Storage storage = new Storage(file.toString(), false, 1000);
+        storage.setLoadMode(Storage.LoadMode.MAPPED);
+        List<Task> loaded = storage.loadTasks();
+        assertEquals(3, loaded.size());
+        assertTrue(loaded.get(0).getIsDone());
+        assertEquals("return book", loaded.get(1).getDescription());
+        assertTrue(loaded.get(2) instanceof Event);
+
+        String[] corrupt = {
+            "X | 0 | unknown type",
+            "D | 0 | no date",
+            "D | 0 | bad date | 2025-13-1",
+            "E | 0 | no end | 2025-9-10",
+            "E | 0 | backwards | 2025-9-12 – 2025-9-10",
+        };
+        for (String line : corrupt) {
+            Files.writeString(file, "T | 0 | fine\n" + line + "\n");
+            List<Task> withCorruptLine = storage.loadTasks();
+            assertEquals(2, withCorruptLine.size());
+            assertEquals("fine", withCorruptLine.get(0).getDescription());
+            assertThrows(MappedTaskList.CorruptLineException.class, () -> withCorruptLine.get(1));
+        }
+    }
+
+    @Test
+    void eagerAndMappedLoadsSkipTheSameLines() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Files.writeString(file, "#gen 0\n"
+                + "T|0|no spaced separators\n"
+                + "T | 0 | \n"
+                + "T | 0 |   | \r\n"
+                + "   \n"
+                + "T | 1 | read book\n"
+                + "T |  | no status\r\n"
+                + "D | 0 | return book | 2025-10-1 1800");
+
+        List<Task> eager = new Storage(file.toString(), false, 1000).loadTasks();
+        Storage storage = new Storage(file.toString(), false, 1000);
+        storage.setLoadMode(Storage.LoadMode.MAPPED);
+        List<Task> mapped = storage.loadTasks();
+        assertEquals(4, eager.size());
+        assertEquals(eager.size(), mapped.size());
+        for (int i = 0; i < eager.size(); i++) {
+            assertEquals(eager.get(i).toString(), mapped.get(i).toString());
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package lebron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TaskListTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void findMatchesAllKeywordsInListOrderAfterEdits() throws Exception {
+        TaskList tasks = new TaskList(new ArrayList<>());
+        tasks.add(new Todo("Read Book"));
+        tasks.add(new Todo("borrow book now"));
+        tasks.add(new Todo("go"));
+        assertEquals(2, tasks.find(List.of("book")).size());
+
+        tasks.delete(1);
+        tasks.add(new Todo("return BOOK now"));
+        List<Task> matches = tasks.find(List.of("book"));
+        assertEquals("borrow book now", matches.get(0).getDescription());
+        assertEquals("return BOOK now", matches.get(1).getDescription());
+        assertEquals(1, tasks.find(List.of("go")).size());
+        assertEquals(2, tasks.find(List.of("book", "now")).size());
+        assertEquals(0, tasks.find(List.of("book", "zzz")).size());
+    }
+
+    @Test
+    void findStillMatchesAfterMostTasksAreDeleted() throws Exception {
+        TaskList tasks = new TaskList(new ArrayList<>());
+        for (int i = 0; i < 3000; i++) {
+            tasks.add(new Todo((i % 3 == 0 ? "water plants " : "buy milk ") + i));
+        }
+        assertEquals(1000, tasks.find(List.of("plants")).size());
+
+        // Deleting all but the last few hundred tasks frees enough numbers for the index to renumber the rest
+        for (int i = 0; i < 2700; i++) {
+            tasks.delete(1);
+        }
+        tasks.add(new Todo("water plants again"));
+        List<Task> matches = tasks.find(List.of("water", "plants"));
+        assertEquals(101, matches.size());
+        assertEquals("water plants 2700", matches.get(0).getDescription());
+        assertEquals("water plants again", matches.get(100).getDescription());
+        assertEquals(200, tasks.find(List.of("milk")).size());
+    }
+
+    @Test
+    void betweenFindsDeadlinesAndOverlappingEventsInListOrder() throws Exception {
+        TaskList tasks = new TaskList(new ArrayList<>());
+        tasks.add(new Event("camp", "2025-9-10", "2025-9-12"));
+        tasks.add(new Deadline("return book", "2025-9-11 1800"));
+        tasks.add(new Deadline("pay rent", "2025-9-30"));
+        assertEquals(2, tasks.between(LocalDate.of(2025, 9, 11), LocalDate.of(2025, 9, 11)).size());
+
+        tasks.delete(2);
+        tasks.add(new Event("trip", "2025-9-1", "2025-9-2"));
+        List<Task> matches = tasks.between(LocalDate.of(2025, 9, 2), LocalDate.of(2025, 9, 10));
+        assertEquals(2, matches.size());
+        assertEquals("camp", matches.get(0).getDescription());
+        assertEquals("trip", matches.get(1).getDescription());
+        assertEquals(0, tasks.between(LocalDate.of(2025, 9, 13), LocalDate.of(2025, 9, 29)).size());
+    }
+
+    @Test
+    void treeBackingKeepsNumberingOfArrayBacking() throws Exception {
+        List<Task> loaded = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            loaded.add(new Todo("task " + i));
+        }
+        TaskList array = new TaskList(loaded, TaskList.Backing.ARRAY);
+        TaskList tree = new TaskList(loaded, TaskList.Backing.TREE);
+        for (TaskList tasks : List.of(array, tree)) {
+            tasks.delete(1);
+            tasks.delete(50);
+            tasks.add(new Todo("new"));
+            tasks.delete(tasks.size());
+            tasks.delete(98);
+        }
+
+        assertEquals(array.size(), tree.size());
+        for (int i = 0; i < array.size(); i++) {
+            assertEquals(array.get(i), tree.get(i));
+        }
+    }
+
+    @Test
+    void columnarBackingBehavesLikeArrayBacking() throws Exception {
+        List<Task> loaded = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            loaded.add(i % 3 == 0 ? new Todo("task " + i + " \u00e9t\u00e9")
+                    : i % 3 == 1 ? new Deadline("due " + i, "2025-9-" + (i % 28 + 1) + " 1800")
+                    : new Event("trip " + i, "2025-9-" + (i % 28 + 1), "2025-10-" + (i % 28 + 1)));
+        }
+        TaskList array = new TaskList(loaded, TaskList.Backing.ARRAY);
+        TaskList columnar = new TaskList(loaded, TaskList.Backing.COLUMNAR);
+        List<Task> before = columnar.snapshot();
+        for (TaskList tasks : List.of(array, columnar)) {
+            tasks.mark(2);
+            tasks.mark(3);
+            tasks.unmark(3);
+            // Enough deletions to compact the descriptions
+            for (int i = 0; i < 450; i++) {
+                tasks.delete(tasks.size() / 2);
+            }
+            tasks.insert(1, new Todo("first"));
+            tasks.add(new Event("camp", "2025-9-10 0900", "2025-9-12 1700"));
+        }
+
+        assertEquals(array.size(), columnar.size());
+        for (int i = 0; i < array.size(); i++) {
+            assertEquals(array.get(i).toString(), columnar.get(i).toString());
+            assertEquals(array.isDated(i), columnar.isDated(i));
+        }
+        assertEquals(array.find(List.of("t\u00c9")).toString(), columnar.find(List.of("t\u00c9")).toString());
+        LocalDate from = LocalDate.of(2025, 9, 11);
+        LocalDate to = LocalDate.of(2025, 9, 14);
+        assertEquals(array.between(from, to).toString(), columnar.between(from, to).toString());
+        assertEquals(600, before.size());
+        assertEquals(loaded.get(300).toString(), before.get(300).toString());
+    }
+
+    @Test
+    void columnarSnapshotsKeepTheirTasksWhileEditsCrossChunks() throws Exception {
+        TaskList array = new TaskList(new ArrayList<>(), TaskList.Backing.ARRAY);
+        TaskList columnar = new TaskList(new ArrayList<>(), TaskList.Backing.COLUMNAR);
+        List<List<Task>> arraySnapshots = new ArrayList<>();
+        List<List<Task>> columnarSnapshots = new ArrayList<>();
+        for (int round = 0; round < 6; round++) {
+            for (TaskList tasks : List.of(array, columnar)) {
+                for (int i = 0; i < 500; i++) {
+                    tasks.add(new Deadline("due " + round + " " + i, "2025-9-" + (i % 28 + 1)));
+                }
+                if (tasks.size() > 1100) {
+                    tasks.insert(1024, new Todo("at the boundary " + round));
+                    tasks.delete(1);
+                    tasks.delete(1025);
+                    tasks.mark(tasks.size());
+                }
+            }
+            arraySnapshots.add(array.snapshot());
+            columnarSnapshots.add(columnar.snapshot());
+        }
+
+        for (int s = 0; s < arraySnapshots.size(); s++) {
+            assertEquals(arraySnapshots.get(s).toString(), columnarSnapshots.get(s).toString());
+        }
+        assertEquals(array.snapshot().toString(), columnar.snapshot().toString());
+    }
+
+    @Test
+    void columnarListAndFindMatchArrayBacking() throws Exception {
+        List<Task> loaded = new ArrayList<>(List.of(new Todo("Fly a KITE"), new Todo("fly a \u212Aite"),
+                new Todo("caf\u00e9 kite"), new Deadline("Kite repair", "2025-9-30 0930"),
+                new Event("kite FESTIVAL", "2025-10-1", "2025-10-3"), new Todo("")));
+        loaded.get(1).markDone();
+        TaskList array = new TaskList(loaded, TaskList.Backing.ARRAY);
+        TaskList columnar = new TaskList(loaded, TaskList.Backing.COLUMNAR);
+
+        Ui ui = new Ui();
+        assertEquals(ui.handleList(array), ui.handleList(columnar));
+        assertEquals(ui.handleList(array, 2, 3), ui.handleList(columnar, 2, 3));
+        for (String keyword : List.of("kite", "KITE", "fly a k", "\u00e9 k", "", "festival", "zz")) {
+            assertEquals(array.find(List.of(keyword)).toString(), columnar.find(List.of(keyword)).toString(), keyword);
+        }
+        assertEquals(2, columnar.find(List.of("kite", "fly")).size());
+        assertThrows(UnsupportedOperationException.class, () -> columnar.snapshot().remove(0));
+    }
+
+    @Test
+    void snapshotIsSharedUntilTheNextEdit() throws Exception {
+        TaskList tasks = new TaskList(new ArrayList<>());
+        tasks.add(new Todo("read book"));
+        List<Task> before = tasks.snapshot();
+        assertSame(before, tasks.snapshot());
+        assertThrows(UnsupportedOperationException.class, () -> before.add(new Todo("sneaky")));
+
+        tasks.add(new Todo("return book"));
+        List<Task> after = tasks.snapshot();
+        assertNotSame(before, after);
+        assertEquals(1, before.size());
+        assertEquals(2, after.size());
+    }
+
+    @Test
+    void mappedSnapshotIsReadOnlyAndSharesDecodedTasks() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Files.writeString(file, "T | 0 | read book\nT | 1 | return book\nD | 0 | pay rent | 2025-9-30\n");
+        Storage storage = new Storage(file.toString(), false, 1000);
+        storage.setLoadMode(Storage.LoadMode.MAPPED);
+        TaskList tasks = new TaskList(storage.loadTasks());
+
+        Task live = tasks.get(0);
+        List<Task> snapshot = tasks.snapshot();
+        assertSame(live, snapshot.get(0));
+        // Lines read through the snapshot first are the same tasks when the list reads them
+        assertSame(snapshot.get(2), tasks.get(2));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.set(1, new Todo("x")));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(1));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Todo("x")));
+        assertEquals(3, tasks.size());
+    }
+
+    @Test
+    void betweenOnMappedListDecodesOnlyDatedLines() throws Exception {
+        Path file = dir.resolve("Lebron.txt");
+        Files.writeString(file, "T | 0 | read book\n"
+                + "D | 0 | pay rent | 2025-9-30\n"
+                + "T | 0 | water plants\n"
+                + "E | 0 | camp | 2025-9-29 – 2025-10-1\n"
+                + "T | 0 | call home\n");
+        Storage storage = new Storage(file.toString(), false, 1000);
+        storage.setLoadMode(Storage.LoadMode.MAPPED);
+        MappedTaskList mapped = (MappedTaskList) storage.loadTasks();
+        TaskList tasks = new TaskList(mapped);
+
+        LocalDate day = LocalDate.of(2025, 9, 30);
+        assertEquals(2, tasks.between(day, day).size());
+        for (int i : new int[] {0, 2, 4}) {
+            assertNotNull(mapped.rawLineAt(i));
+        }
+
+        // Inserted tasks are put in list order among the dated tasks, however many todos lie in between
+        tasks.insert(2, new Deadline("renew visa", "2025-9-30"));
+        tasks.insert(6, new Deadline("file taxes", "2025-9-30"));
+        tasks.insert(1, new Todo("stretch"));
+        List<Task> matches = tasks.between(day, day);
+        assertEquals(List.of("renew visa", "pay rent", "camp", "file taxes"),
+                matches.stream().map(Task::getDescription).toList());
+        assertNotNull(mapped.rawLineAt(1));
+
+        assertEquals(1, tasks.find(List.of("water")).size());
+        assertEquals(List.of("renew visa", "pay rent", "camp", "file taxes"),
+                tasks.between(day, day).stream().map(Task::getDescription).toList());
+    }
+
+    @Test
+    void pageCopiesOnlyItsTasksAndIsUnchangedByLaterEdits() throws Exception {
+        for (TaskList.Backing backing : TaskList.Backing.values()) {
+            TaskList tasks = new TaskList(new ArrayList<>(), backing);
+            for (int i = 0; i < 100; i++) {
+                tasks.add(new Todo("task " + i));
+            }
+            TaskList.Page page = tasks.page(40, 20);
+            tasks.delete(1);
+            tasks.insert(45, new Todo("inserted"));
+
+            assertEquals(40, page.getStart());
+            assertEquals(60, page.getEnd());
+            assertEquals(100, page.getSize());
+            StringBuilder sb = new StringBuilder();
+            page.appendTask(40, sb);
+            page.appendTask(59, sb);
+            assertEquals("[T][ ] task 40[T][ ] task 59", sb.toString(), backing.toString());
+
+            TaskList.Page last = tasks.page(95, 20);
+            assertEquals(95, last.getStart());
+            assertEquals(100, last.getEnd());
+            assertEquals(100, tasks.page(200, 5).getStart());
+        }
+    }
+
+    @Test
+    void displayStringFollowsMarksMadeWhileOtherThreadsReadIt() throws Exception {
+        Task t = new Todo("read book");
+        Thread[] readers = new Thread[4];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    t.toString();
+                }
+            });
+            readers[r].start();
+        }
+        for (int i = 0; i < 20_000; i++) {
+            t.markDone();
+            t.markUndone();
+        }
+        t.markDone();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals("[T][X] read book", t.toString());
+    }
+}
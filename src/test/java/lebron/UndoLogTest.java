@@ -0,0 +1,67 @@
+package lebron;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class UndoLogTest {
+    @Test
+    void oldestChangesAreForgottenOnceFull() {
+        UndoLog log = new UndoLog(3);
+        for (int i = 1; i <= 5; i++) {
+            log.record(UndoLog.MARK, i, null);
+        }
+        assertEquals(5, log.undo().get(0).getIndex());
+        assertEquals(4, log.undo().get(0).getIndex());
+        assertEquals(3, log.undo().get(0).getIndex());
+        assertFalse(log.canUndo());
+    }
+
+    @Test
+    void groupIsUndoneAndRedoneTogether() {
+        UndoLog log = new UndoLog(10);
+        log.record(UndoLog.ADD, 1, null);
+        log.beginGroup();
+        log.record(UndoLog.ADD, 2, null);
+        log.record(UndoLog.DELETE, 1, null);
+        log.endGroup();
+
+        List<UndoLog.Entry> undone = log.undo();
+        assertEquals(2, undone.size());
+        assertEquals(UndoLog.DELETE, undone.get(0).getKind());
+        assertTrue(log.canRedo());
+        assertEquals(UndoLog.ADD, log.redo().get(0).getKind());
+        assertFalse(log.canRedo());
+    }
+
+    @Test
+    void recordingForgetsWhatCouldBeRedone() {
+        UndoLog log = new UndoLog(10);
+        log.record(UndoLog.ADD, 1, null);
+        log.record(UndoLog.ADD, 2, null);
+        log.undo();
+        log.record(UndoLog.MARK, 1, null);
+        assertFalse(log.canRedo());
+        assertEquals(UndoLog.MARK, log.undo().get(0).getKind());
+        assertEquals(UndoLog.ADD, log.undo().get(0).getKind());
+        assertFalse(log.canUndo());
+    }
+
+    @Test
+    void groupLargerThanTheLogIsDropped() {
+        UndoLog log = new UndoLog(2);
+        log.record(UndoLog.ADD, 1, null);
+        log.beginGroup();
+        for (int i = 0; i < 3; i++) {
+            log.record(UndoLog.MARK, 1, null);
+        }
+        log.endGroup();
+        assertFalse(log.canUndo());
+        log.record(UndoLog.DELETE, 1, null);
+        assertTrue(log.canUndo());
+    }
+}